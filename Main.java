@@ -1,6 +1,9 @@
 // I strongly recommend reading the README file carefully first 
 // to know all considerations and conventions in this project
 
+import java.util.Arrays;
+import java.util.List;
+import model.*;
 import tests.QuantumBookstoreFullTest;
 
 public class Main {
@@ -10,11 +13,17 @@ public class Main {
     /**
      * Main method to run the Quantum Bookstore test suite.
      *
-     * @param args Command line arguments (not used)
+     * @param args Command line arguments; {@code --warmup} warms up a sample
+     * store before the tests run
      */
     public static void main(String[] args) {
         printHeader("Welcome to the Quantum Bookstore Test Suite!");
 
+        if (Arrays.asList(args).contains("--warmup")) {
+            printHeader("Warming Up");
+            warmUp();
+        }
+
         // Run automated tests
         printHeader("Running Automated Tests");
         QuantumBookstoreFullTest test = new QuantumBookstoreFullTest();
@@ -23,6 +32,22 @@ public class Main {
         printHeader("Test Suite Execution Completed!");
     }
 
+    /**
+     * Warms up a sample store and prints the readiness report. Running this
+     * with {@code -XX:ArchiveClassesAtExit} records the loaded classes in an
+     * AppCDS archive for faster startup.
+     */
+    private static void warmUp() {
+        QuantumBookstore store = new QuantumBookstore(true);
+        store.addBooks(List.of(
+                new PaperBook("978-0000000001", "Warm-up Paper Book", 2024, 30.00, "Warm-up Author", 10),
+                new EBook("978-0000000002", "Warm-up EBook", 2024, 15.00, "Warm-up Author", "PDF"),
+                new ShowcaseBook("978-0000000003", "Warm-up Showcase Book", 2024, 0.00, "Warm-up Author")));
+
+        WarmupReport report = new StoreWarmup(store).run();
+        System.out.println(PREFIX + (report.isReady() ? "Ready: " : "Not stabilized: ") + report);
+    }
+
     /**
      * Prints a formatted section header.
      *
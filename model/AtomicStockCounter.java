@@ -0,0 +1,105 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AtomicStockCounter implements StockCounter {
+
+    private static final int RETIRED_VALUE = Integer.MIN_VALUE;
+
+    private final AtomicInteger stock;
+
+    /**
+     * Constructs a counter backed by a single atomic integer.
+     *
+     * @param stock The initial stock quantity
+     * @throws IllegalArgumentException if stock is negative
+     */
+    public AtomicStockCounter(int stock) {
+        if (stock < 0) {
+            throw new IllegalArgumentException("Stock cannot be negative");
+        }
+        this.stock = new AtomicInteger(stock);
+    }
+
+    /**
+     * Gets the current stock.
+     *
+     * @return The stock quantity, or 0 if the counter has been retired
+     */
+    @Override
+    public int get() {
+        return Math.max(stock.get(), 0);
+    }
+
+    /**
+     * Takes stock with a compare-and-set loop.
+     *
+     * @param quantity The quantity to take
+     * @param partial Whether to take whatever is available up to the quantity
+     * @return The quantity taken, or {@link #RETIRED} if retired
+     */
+    @Override
+    public int take(int quantity, boolean partial) {
+        while (true) {
+            int available = stock.get();
+            if (available == RETIRED_VALUE) {
+                return RETIRED;
+            }
+            int taken = available >= quantity ? quantity : (partial ? available : 0);
+            if (taken == 0) {
+                return 0;
+            }
+            if (stock.compareAndSet(available, available - taken)) {
+                return taken;
+            }
+        }
+    }
+
+    /**
+     * Returns stock to the counter.
+     *
+     * @param quantity The quantity to add
+     * @return true if added, false if retired
+     */
+    @Override
+    public boolean add(int quantity) {
+        while (true) {
+            int available = stock.get();
+            if (available == RETIRED_VALUE) {
+                return false;
+            }
+            if (stock.compareAndSet(available, available + quantity)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Overwrites the stock.
+     *
+     * @param stock The new stock quantity
+     * @return true if set, false if retired
+     */
+    @Override
+    public boolean set(int stock) {
+        while (true) {
+            int available = this.stock.get();
+            if (available == RETIRED_VALUE) {
+                return false;
+            }
+            if (this.stock.compareAndSet(available, stock)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Retires the counter.
+     *
+     * @return The stock held at retirement
+     */
+    @Override
+    public int retire() {
+        return Math.max(stock.getAndSet(RETIRED_VALUE), 0);
+    }
+}
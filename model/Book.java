@@ -1,11 +1,17 @@
 package model;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import pricing.Money;
+import service.DeliveryGateway;
+
 public abstract class Book {
     private String isbn;
     private String title;
     private int publishYear;
-    private double price;
+    private volatile double price;
     private String authorName;
+    private final List<PriceChangeListener> priceListeners = new CopyOnWriteArrayList<>();
 
     /**
      * Constructs a new Book with the specified details.
@@ -102,7 +108,43 @@ public abstract class Book {
      * @param price The new price
      */
     public void setPrice(double price) {
+        double oldPrice = this.price;
         this.price = price;
+        if (oldPrice != price) {
+            for (PriceChangeListener listener : priceListeners) {
+                listener.onPriceChanged(this, oldPrice, price);
+            }
+        }
+    }
+
+    /**
+     * Registers a listener to be notified when the price of this book changes.
+     *
+     * @param listener The listener to register
+     */
+    void addPriceChangeListener(PriceChangeListener listener) {
+        if (!priceListeners.contains(listener)) {
+            priceListeners.add(listener);
+        }
+    }
+
+    /**
+     * Unregisters a previously registered price change listener.
+     *
+     * @param listener The listener to unregister
+     */
+    void removePriceChangeListener(PriceChangeListener listener) {
+        priceListeners.remove(listener);
+    }
+
+    /**
+     * Checks whether a price change listener is registered.
+     *
+     * @param listener The listener to look for
+     * @return true if the listener is registered, false otherwise
+     */
+    boolean hasPriceChangeListener(PriceChangeListener listener) {
+        return priceListeners.contains(listener);
     }
 
     /**
@@ -114,16 +156,59 @@ public abstract class Book {
         this.authorName = authorName;
     }
 
+    /**
+     * Purchases the book at its list price.
+     * 
+     * @param quantity The quantity to purchase
+     * @param email    The customer's email address
+     * @param address  The customer's shipping address
+     * @return The total amount paid
+     */
+    public double purchase(int quantity, String email, String address) {
+        return purchase(quantity, Money.toCents(getPrice()), email, address);
+    }
+
+    /**
+     * Purchases the book at the given unit price, delivering through the
+     * console-logging services.
+     * 
+     * @param quantity       The quantity to purchase
+     * @param unitPriceCents The effective unit price in cents
+     * @param email          The customer's email address
+     * @param address        The customer's shipping address
+     * @return The total amount paid
+     */
+    public double purchase(int quantity, long unitPriceCents, String email, String address) {
+        return purchase(quantity, unitPriceCents, email, address, DeliveryGateway.CONSOLE);
+    }
+
     /**
      * Abstract method to be implemented by subclasses to define
      * purchase behavior specific to each book type.
      * 
+     * @param quantity       The quantity to purchase
+     * @param unitPriceCents The effective unit price in cents
+     * @param email          The customer's email address
+     * @param address        The customer's shipping address
+     * @param gateway        The gateway used to deliver the book
+     * @return The total amount paid
+     */
+    public abstract double purchase(int quantity, long unitPriceCents, String email, String address,
+            DeliveryGateway gateway);
+
+    /**
+     * Abstract method to be implemented by subclasses to reserve and deliver
+     * the book without throwing or logging for expected failures. This is the
+     * allocation-free core of every purchase.
+     * 
      * @param quantity The quantity to purchase
      * @param email    The customer's email address
      * @param address  The customer's shipping address
-     * @return The total amount paid
+     * @param gateway  The gateway used to deliver the book
+     * @return {@link PurchaseStatus#OK} if the book was delivered, otherwise
+     *         the reason it was not
      */
-    public abstract double purchase(int quantity, String email, String address);
+    public abstract PurchaseStatus fulfil(int quantity, String email, String address, DeliveryGateway gateway);
 
     /**
      * Checks if the book is available for purchase.
@@ -0,0 +1,98 @@
+package model;
+
+public final class BookSnapshot {
+
+    private final String isbn;
+    private final String title;
+    private final String authorName;
+    private final int publishYear;
+    private final double price;
+    private final String type;
+    private final Book book;
+
+    /**
+     * Captures the catalog metadata of a book at the moment of publishing.
+     * Stock is not part of the snapshot; it stays on the live book.
+     *
+     * @param book The live book to capture
+     */
+    BookSnapshot(Book book) {
+        this.isbn = book.getISBN();
+        this.title = book.getTitle();
+        this.authorName = book.getAuthorName();
+        this.publishYear = book.getPublishYear();
+        this.price = book.getPrice();
+        this.type = book.getClass().getSimpleName();
+        this.book = book;
+    }
+
+    /**
+     * Gets the ISBN captured in this snapshot.
+     *
+     * @return The ISBN string identifier
+     */
+    public String getISBN() {
+        return isbn;
+    }
+
+    /**
+     * Gets the title captured in this snapshot.
+     *
+     * @return The book title
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Gets the author's name captured in this snapshot.
+     *
+     * @return The author name
+     */
+    public String getAuthorName() {
+        return authorName;
+    }
+
+    /**
+     * Gets the publication year captured in this snapshot.
+     *
+     * @return The publication year
+     */
+    public int getPublishYear() {
+        return publishYear;
+    }
+
+    /**
+     * Gets the price captured in this snapshot.
+     *
+     * @return The book price
+     */
+    public double getPrice() {
+        return price;
+    }
+
+    /**
+     * Gets the book type captured in this snapshot (e.g., "PaperBook").
+     *
+     * @return The simple class name of the book type
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Gets the live book this snapshot was taken from. Used by the store to
+     * resolve stock, which is not part of the immutable metadata.
+     *
+     * @return The live book
+     */
+    Book getBook() {
+        return book;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BookSnapshot{isbn='%s', title='%s', publishYear=%d, price=%.2f, authorName='%s', type='%s'}",
+                isbn, title, publishYear, price, authorName, type);
+    }
+}
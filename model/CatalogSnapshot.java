@@ -0,0 +1,225 @@
+package model;
+
+import java.util.*;
+
+public final class CatalogSnapshot {
+
+    /**
+     * The snapshot published before any book has been added.
+     */
+    static final CatalogSnapshot EMPTY = new CatalogSnapshot(0L, Collections.emptyList());
+
+    private static final int SHARDS = 64;
+
+    private final long version;
+    private final List<Map<String, BookSnapshot>> shards;
+    private final int size;
+
+    /**
+     * Builds an immutable snapshot of the given books. The books' metadata is
+     * copied, so later calls to their setters do not affect this snapshot.
+     *
+     * @param version The version number of this snapshot
+     * @param books The books to capture
+     */
+    CatalogSnapshot(long version, Collection<? extends Book> books) {
+        List<Map<String, BookSnapshot>> copy = new ArrayList<>(SHARDS);
+        for (int i = 0; i < SHARDS; i++) {
+            copy.add(Collections.emptyMap());
+        }
+        this.version = version;
+        this.shards = Collections.unmodifiableList(copy);
+        this.size = apply(copy, books, Collections.emptyList(), 0);
+    }
+
+    /**
+     * Builds the snapshot following another one, copying only the shards an
+     * update touches and sharing all others with the previous snapshot.
+     *
+     * @param previous The snapshot being updated
+     * @param added The books added or replaced
+     * @param removed The ISBNs of the books removed
+     */
+    private CatalogSnapshot(CatalogSnapshot previous, Collection<? extends Book> added, Collection<String> removed) {
+        List<Map<String, BookSnapshot>> copy = new ArrayList<>(previous.shards);
+        this.version = previous.version + 1;
+        this.shards = Collections.unmodifiableList(copy);
+        this.size = apply(copy, added, removed, previous.size);
+    }
+
+    /**
+     * Creates the next version of this snapshot with books added, replaced
+     * or removed. Only the shards holding the changed ISBNs are copied, so
+     * publishing a small change costs a fraction of the catalog size.
+     *
+     * @param added The books added or replaced
+     * @param removed The ISBNs of the books removed
+     * @return The next snapshot
+     */
+    CatalogSnapshot withChanges(Collection<? extends Book> added, Collection<String> removed) {
+        return new CatalogSnapshot(this, added, removed);
+    }
+
+    /**
+     * Applies changes to a list of shards, replacing every touched shard with
+     * a modified copy.
+     *
+     * @param shards The shards to update
+     * @param added The books added or replaced
+     * @param removed The ISBNs of the books removed
+     * @param size The number of books before the changes
+     * @return The number of books after the changes
+     */
+    private static int apply(List<Map<String, BookSnapshot>> shards, Collection<? extends Book> added,
+            Collection<String> removed, int size) {
+        boolean[] copied = new boolean[SHARDS];
+        for (String isbn : removed) {
+            Map<String, BookSnapshot> shard = writableShard(shards, copied, shardOf(isbn));
+            if (shard.remove(isbn) != null) {
+                size--;
+            }
+        }
+        for (Book book : added) {
+            Map<String, BookSnapshot> shard = writableShard(shards, copied, shardOf(book.getISBN()));
+            if (shard.put(book.getISBN(), new BookSnapshot(book)) == null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Gets a shard that may be modified, copying it the first time it is
+     * touched by an update.
+     *
+     * @param shards The shards being updated
+     * @param copied Which shards have already been copied
+     * @param index The shard index
+     * @return The modifiable shard
+     */
+    private static Map<String, BookSnapshot> writableShard(List<Map<String, BookSnapshot>> shards, boolean[] copied,
+            int index) {
+        if (!copied[index]) {
+            shards.set(index, new HashMap<>(shards.get(index)));
+            copied[index] = true;
+        }
+        return shards.get(index);
+    }
+
+    /**
+     * Gets the shard an ISBN belongs to.
+     *
+     * @param isbn The ISBN
+     * @return The shard index
+     */
+    private static int shardOf(String isbn) {
+        int hash = isbn.hashCode();
+        return (hash ^ (hash >>> 16)) & (SHARDS - 1);
+    }
+
+    /**
+     * Gets the version of this snapshot. Versions increase by one with every
+     * publish, so two reads with the same version saw the same catalog.
+     *
+     * @return The snapshot version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Finds the metadata of a book by its ISBN.
+     *
+     * @param isbn The ISBN of the book to find
+     * @return The book snapshot if found, null otherwise
+     */
+    public BookSnapshot find(String isbn) {
+        return isbn == null ? null : shards.get(shardOf(isbn)).get(isbn);
+    }
+
+    /**
+     * Gets the metadata of every book in this snapshot.
+     *
+     * @return An unmodifiable collection of book snapshots
+     */
+    public Collection<BookSnapshot> getAll() {
+        List<BookSnapshot> result = new ArrayList<>(size);
+        for (Map<String, BookSnapshot> shard : shards) {
+            result.addAll(shard.values());
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Gets the metadata of all books of a specific type.
+     *
+     * @param bookType The class type of books to retrieve
+     * @return A list of book snapshots of the specified type
+     */
+    public List<BookSnapshot> getByType(Class<? extends Book> bookType) {
+        List<BookSnapshot> result = new ArrayList<>();
+        for (Map<String, BookSnapshot> shard : shards) {
+            for (BookSnapshot entry : shard.values()) {
+                if (bookType.isInstance(entry.getBook())) {
+                    result.add(entry);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Searches the snapshot by title (case-insensitive).
+     *
+     * @param title The title to search for
+     * @return A list of book snapshots matching the title
+     */
+    public List<BookSnapshot> searchByTitle(String title) {
+        List<BookSnapshot> result = new ArrayList<>();
+        if (title == null || title.isBlank()) {
+            return result;
+        }
+
+        String needle = title.toLowerCase();
+        for (Map<String, BookSnapshot> shard : shards) {
+            for (BookSnapshot entry : shard.values()) {
+                if (entry.getTitle().toLowerCase().contains(needle)) {
+                    result.add(entry);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Searches the snapshot by author name (case-insensitive).
+     *
+     * @param authorName The author name to search for
+     * @return A list of book snapshots by the specified author
+     */
+    public List<BookSnapshot> searchByAuthor(String authorName) {
+        List<BookSnapshot> result = new ArrayList<>();
+        if (authorName == null || authorName.isBlank()) {
+            return result;
+        }
+
+        String needle = authorName.toLowerCase();
+        for (Map<String, BookSnapshot> shard : shards) {
+            for (BookSnapshot entry : shard.values()) {
+                if (entry.getAuthorName().toLowerCase().contains(needle)) {
+                    result.add(entry);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the number of books in this snapshot.
+     *
+     * @return The book count
+     */
+    public int size() {
+        return size;
+    }
+}
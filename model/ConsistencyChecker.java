@@ -0,0 +1,284 @@
+package model;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import pricing.PricingEngine;
+
+public class ConsistencyChecker {
+
+    private static final int DEFAULT_CHUNK_SIZE = 256;
+
+    private final QuantumBookstore bookstore;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    /**
+     * Constructs a checker that runs on the common fork-join pool and checks
+     * up to 256 ISBNs per task.
+     *
+     * @param bookstore The bookstore to check
+     */
+    public ConsistencyChecker(QuantumBookstore bookstore) {
+        this(bookstore, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructs a checker that runs on a caller-owned fork-join pool.
+     *
+     * @param bookstore The bookstore to check
+     * @param pool The pool running the check tasks
+     * @param chunkSize The number of ISBNs checked per task
+     * @throws IllegalArgumentException if the bookstore or pool is null or the
+     * chunk size is not positive
+     */
+    public ConsistencyChecker(QuantumBookstore bookstore, ForkJoinPool pool, int chunkSize) {
+        if (bookstore == null || pool == null) {
+            throw new IllegalArgumentException("Bookstore and pool cannot be null");
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be greater than 0");
+        }
+        this.bookstore = bookstore;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Cross-checks the price index, price listeners, pricing table and, in
+     * snapshot catalog mode, the published catalog snapshot against the
+     * inventory and reports every divergence without changing anything. The
+     * snapshot is read as published and never republished by the check.
+     * Order histories and recommendation state are not checked: they record
+     * past purchases rather than mirror the inventory, so books removed since
+     * are expected to remain in them.
+     *
+     * @return The consistency report
+     */
+    public ConsistencyReport check() {
+        return run(false);
+    }
+
+    /**
+     * Cross-checks like {@link #check()} and repairs every divergence it can.
+     * A book stored under a stale key is only moved if its new ISBN is free.
+     *
+     * @return The consistency report, with repaired divergences marked
+     */
+    public ConsistencyReport repair() {
+        return run(true);
+    }
+
+    /**
+     * Scans every ISBN in parallel without locking, then confirms, and
+     * optionally repairs, each suspect ISBN under the store's write lock so
+     * that changes made during the scan are not reported. Purchases never
+     * take the write lock and are not blocked.
+     *
+     * @param repair Whether to repair confirmed divergences
+     * @return The consistency report
+     */
+    private ConsistencyReport run(boolean repair) {
+        long start = System.nanoTime();
+        String[] isbns = collectIsbns();
+        List<Divergence> suspects = pool.invoke(new CheckTask(isbns, 0, isbns.length));
+
+        Set<String> suspectIsbns = new LinkedHashSet<>();
+        for (Divergence suspect : suspects) {
+            suspectIsbns.add(suspect.getISBN());
+        }
+
+        List<Divergence> confirmed = new ArrayList<>();
+        boolean republish = false;
+        for (String isbn : suspectIsbns) {
+            synchronized (bookstore.getWriteLock()) {
+                List<Divergence> found = new ArrayList<>();
+                checkIsbn(isbn, found);
+                for (Divergence divergence : found) {
+                    if (repair && fix(divergence)) {
+                        confirmed.add(divergence.asRepaired());
+                        republish = true;
+                    } else {
+                        confirmed.add(divergence);
+                    }
+                }
+            }
+        }
+        if (republish) {
+            bookstore.refreshCatalog();
+        }
+
+        return new ConsistencyReport(isbns.length, confirmed, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * Collects every ISBN known to the inventory or a secondary structure.
+     *
+     * @return The ISBNs to check
+     */
+    private String[] collectIsbns() {
+        Set<String> isbns = new HashSet<>(bookstore.getInventoryIsbns());
+        isbns.addAll(bookstore.getPriceIndex().getIsbns());
+        PricingEngine engine = bookstore.getPricingEngine();
+        if (engine != null) {
+            isbns.addAll(engine.getPriceTable().getIsbns());
+        }
+        if (bookstore.isSnapshotCatalog()) {
+            for (BookSnapshot entry : bookstore.getPublishedCatalog().getAll()) {
+                isbns.add(entry.getISBN());
+            }
+        }
+        return isbns.toArray(new String[0]);
+    }
+
+    /**
+     * Cross-checks one ISBN against every secondary structure.
+     *
+     * @param isbn The ISBN to check
+     * @param found Receives the divergences found
+     */
+    private void checkIsbn(String isbn, List<Divergence> found) {
+        Book book = bookstore.findBook(isbn);
+        if (book != null && !isbn.equals(book.getISBN())) {
+            found.add(new Divergence(Divergence.Kind.ISBN_MISMATCH, isbn,
+                    "Stored under " + isbn + " but its ISBN is " + book.getISBN(), false));
+            return;
+        }
+
+        PriceIndex priceIndex = bookstore.getPriceIndex();
+        PricingEngine engine = bookstore.getPricingEngine();
+        if (book != null) {
+            if (!priceIndex.isIndexed(book)) {
+                found.add(new Divergence(Divergence.Kind.PRICE_INDEX_STALE, isbn,
+                        "Not indexed at its price " + book.getPrice(), false));
+            }
+            if (!book.hasPriceChangeListener(priceIndex)
+                    || (engine != null && !book.hasPriceChangeListener(engine))) {
+                found.add(new Divergence(Divergence.Kind.LISTENER_MISSING, isbn,
+                        "Price changes are not propagated to every index", false));
+            }
+            if (engine != null && !engine.isCurrent(book)) {
+                found.add(new Divergence(Divergence.Kind.PRICING_STALE, isbn,
+                        "Pricing table entry is missing or stale", false));
+            }
+        } else {
+            if (priceIndex.getIndexedBook(isbn) != null) {
+                found.add(new Divergence(Divergence.Kind.PRICE_INDEX_ORPHAN, isbn,
+                        "Indexed but not in inventory", false));
+            }
+            if (engine != null && engine.getPriceTable().get(isbn) != null) {
+                found.add(new Divergence(Divergence.Kind.PRICING_ORPHAN, isbn,
+                        "Priced but not in inventory", false));
+            }
+        }
+
+        if (bookstore.isSnapshotCatalog()) {
+            BookSnapshot entry = bookstore.getPublishedCatalog().find(isbn);
+            if (book != null && (entry == null || !matches(entry, book))) {
+                found.add(new Divergence(Divergence.Kind.CATALOG_STALE, isbn,
+                        "Catalog snapshot is missing the book or has stale metadata", false));
+            } else if (book == null && entry != null) {
+                found.add(new Divergence(Divergence.Kind.CATALOG_ORPHAN, isbn,
+                        "In catalog snapshot but not in inventory", false));
+            }
+        }
+    }
+
+    /**
+     * Repairs a confirmed divergence. Must be called while holding the
+     * store's write lock. Catalog divergences are repaired by republishing
+     * the snapshot once all other repairs are done.
+     *
+     * @param divergence The divergence to repair
+     * @return true if repaired, false if it cannot be repaired safely
+     */
+    private boolean fix(Divergence divergence) {
+        String isbn = divergence.getISBN();
+        Book book = bookstore.findBook(isbn);
+        PricingEngine engine = bookstore.getPricingEngine();
+        switch (divergence.getKind()) {
+            case ISBN_MISMATCH:
+                return bookstore.rekeyBook(isbn, book);
+            case PRICE_INDEX_STALE:
+                bookstore.getPriceIndex().add(book);
+                return true;
+            case PRICE_INDEX_ORPHAN:
+                bookstore.getPriceIndex().removeIsbn(isbn);
+                return true;
+            case LISTENER_MISSING:
+                book.addPriceChangeListener(bookstore.getPriceIndex());
+                if (engine != null) {
+                    book.addPriceChangeListener(engine);
+                }
+                return true;
+            case PRICING_STALE:
+                engine.refresh(book);
+                return true;
+            case PRICING_ORPHAN:
+                engine.remove(isbn);
+                return true;
+            case CATALOG_STALE:
+            case CATALOG_ORPHAN:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Checks whether a catalog snapshot entry matches a live book.
+     *
+     * @param entry The snapshot entry
+     * @param book The live book
+     * @return true if the entry captures the book's current metadata
+     */
+    private static boolean matches(BookSnapshot entry, Book book) {
+        return entry.getBook() == book
+                && Objects.equals(entry.getTitle(), book.getTitle())
+                && Objects.equals(entry.getAuthorName(), book.getAuthorName())
+                && entry.getPublishYear() == book.getPublishYear()
+                && entry.getPrice() == book.getPrice();
+    }
+
+    /**
+     * Checks a range of ISBNs, splitting it in half until it fits in a chunk.
+     */
+    private final class CheckTask extends RecursiveTask<List<Divergence>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String[] isbns;
+        private final int from;
+        private final int to;
+
+        private CheckTask(String[] isbns, int from, int to) {
+            this.isbns = isbns;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Divergence> compute() {
+            if (to - from <= chunkSize) {
+                List<Divergence> found = new ArrayList<>();
+                for (int i = from; i < to; i++) {
+                    checkIsbn(isbns[i], found);
+                }
+                return found;
+            }
+
+            int middle = (from + to) >>> 1;
+            CheckTask left = new CheckTask(isbns, from, middle);
+            left.fork();
+            List<Divergence> found = new CheckTask(isbns, middle, to).compute();
+            found.addAll(left.join());
+            return found;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package model;
+
+import java.time.Duration;
+import java.util.List;
+
+public final class ConsistencyReport {
+
+    private final int checkedIsbns;
+    private final List<Divergence> divergences;
+    private final Duration elapsed;
+
+    /**
+     * Constructs a report.
+     *
+     * @param checkedIsbns The number of ISBNs cross-checked
+     * @param divergences The confirmed divergences
+     * @param elapsed The time the check took
+     */
+    ConsistencyReport(int checkedIsbns, List<Divergence> divergences, Duration elapsed) {
+        this.checkedIsbns = checkedIsbns;
+        this.divergences = List.copyOf(divergences);
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * Gets the number of ISBNs cross-checked, across the inventory and every
+     * secondary structure.
+     *
+     * @return The checked ISBN count
+     */
+    public int getCheckedIsbns() {
+        return checkedIsbns;
+    }
+
+    /**
+     * Gets the divergences that were still present when confirmed under the
+     * store's write lock.
+     *
+     * @return An unmodifiable list of divergences
+     */
+    public List<Divergence> getDivergences() {
+        return divergences;
+    }
+
+    /**
+     * Gets the number of divergences that were repaired.
+     *
+     * @return The repaired count
+     */
+    public int getRepairedCount() {
+        int repaired = 0;
+        for (Divergence divergence : divergences) {
+            if (divergence.isRepaired()) {
+                repaired++;
+            }
+        }
+        return repaired;
+    }
+
+    /**
+     * Checks whether no divergence was found.
+     *
+     * @return true if every secondary structure agreed with the inventory
+     */
+    public boolean isConsistent() {
+        return divergences.isEmpty();
+    }
+
+    /**
+     * Gets the time the check took.
+     *
+     * @return The elapsed duration
+     */
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ConsistencyReport{checkedIsbns=%d, divergences=%d, repaired=%d, elapsed=%dms}",
+                checkedIsbns, divergences.size(), getRepairedCount(), elapsed.toMillis());
+    }
+}
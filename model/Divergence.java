@@ -0,0 +1,98 @@
+package model;
+
+public final class Divergence {
+
+    /**
+     * The kinds of disagreement between the inventory and a secondary
+     * structure.
+     */
+    public enum Kind {
+        /** A book is stored under a key other than its current ISBN. */
+        ISBN_MISMATCH,
+        /** A book is missing from the price index or indexed at a stale price. */
+        PRICE_INDEX_STALE,
+        /** The price index holds an ISBN that is not in the inventory. */
+        PRICE_INDEX_ORPHAN,
+        /** A book is not registered to notify the price index or pricing engine. */
+        LISTENER_MISSING,
+        /** The catalog snapshot is missing a book or holds stale metadata. */
+        CATALOG_STALE,
+        /** The catalog snapshot holds an ISBN that is not in the inventory. */
+        CATALOG_ORPHAN,
+        /** The pricing table is missing a book or holds a stale entry. */
+        PRICING_STALE,
+        /** The pricing table holds an ISBN that is not in the inventory. */
+        PRICING_ORPHAN
+    }
+
+    private final Kind kind;
+    private final String isbn;
+    private final String detail;
+    private final boolean repaired;
+
+    /**
+     * Constructs a divergence.
+     *
+     * @param kind The kind of divergence
+     * @param isbn The ISBN the divergence was found under
+     * @param detail A human-readable description
+     * @param repaired Whether the divergence has been repaired
+     */
+    Divergence(Kind kind, String isbn, String detail, boolean repaired) {
+        this.kind = kind;
+        this.isbn = isbn;
+        this.detail = detail;
+        this.repaired = repaired;
+    }
+
+    /**
+     * Gets the kind of divergence.
+     *
+     * @return The kind
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Gets the ISBN the divergence was found under.
+     *
+     * @return The ISBN
+     */
+    public String getISBN() {
+        return isbn;
+    }
+
+    /**
+     * Gets a human-readable description of the divergence.
+     *
+     * @return The detail message
+     */
+    public String getDetail() {
+        return detail;
+    }
+
+    /**
+     * Checks whether the divergence has been repaired.
+     *
+     * @return true if repaired, false if only reported
+     */
+    public boolean isRepaired() {
+        return repaired;
+    }
+
+    /**
+     * Returns a copy of this divergence marked as repaired.
+     *
+     * @return The repaired divergence
+     */
+    Divergence asRepaired() {
+        return new Divergence(kind, isbn, detail, true);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Divergence{kind=%s, isbn='%s', detail='%s', repaired=%b}", kind, isbn, detail,
+                repaired);
+    }
+}
@@ -1,6 +1,7 @@
 package model;
 
-import service.MailService;
+import pricing.Money;
+import service.DeliveryGateway;
 
 public class EBook extends Book {
 
@@ -45,16 +46,19 @@ public class EBook extends Book {
      * sent via email.
      *
      * @param quantity The quantity to purchase
+     * @param unitPriceCents The effective unit price in cents
      * @param email The customer's email address
      * @param address The customer's shipping address (not used for eBooks)
+     * @param gateway The gateway used to send the eBook
      * @return The total amount paid
      */
     @Override
-    public double purchase(int quantity, String email, String address) {
-        double totalAmount = getPrice() * quantity;
+    public double purchase(int quantity, long unitPriceCents, String email, String address,
+            DeliveryGateway gateway) {
+        double totalAmount = Money.toAmount(Money.multiply(unitPriceCents, quantity));
 
         // Send eBook via email
-        MailService.sendEBook(this, quantity, email);
+        fulfil(quantity, email, address, gateway);
 
         System.out.println("Quantum book store: EBook '" + getTitle() + "' purchased. Quantity: " + quantity
                 + ", Total: $" + totalAmount);
@@ -62,6 +66,21 @@ public class EBook extends Book {
         return totalAmount;
     }
 
+    /**
+     * Sends the eBook via email. EBooks are always available.
+     *
+     * @param quantity The quantity to purchase
+     * @param email The customer's email address
+     * @param address The customer's shipping address (not used for eBooks)
+     * @param gateway The gateway used to send the eBook
+     * @return Always returns {@link PurchaseStatus#OK}
+     */
+    @Override
+    public PurchaseStatus fulfil(int quantity, String email, String address, DeliveryGateway gateway) {
+        gateway.sendEBook(this, quantity, email);
+        return PurchaseStatus.OK;
+    }
+
     /**
      * EBooks are always available for purchase.
      *
@@ -0,0 +1,482 @@
+package model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+public class OrderHistory implements PurchaseListener, AutoCloseable {
+
+    private static final int DEFAULT_SEGMENT_CAPACITY = 4096;
+    private static final int RECORD_BYTES = Integer.BYTES * 2 + Long.BYTES * 2 + Byte.BYTES;
+    private static final long SPILL_SHUTDOWN_SECONDS = 30;
+
+    private final int segmentCapacity;
+    private final int maxInMemorySegments;
+    private final Path spillDirectory;
+    private final Clock clock;
+    private final ExecutorService spiller;
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private final Dictionary isbns = new Dictionary();
+    private final Dictionary bookTypes = new Dictionary();
+    private final Map<String, CustomerOrders> customers = new ConcurrentHashMap<>();
+    private final Function<String, CustomerOrders> newCustomer = email -> new CustomerOrders();
+    private final Object appendLock = new Object();
+    private Segment active;
+    private int nextSpill;
+    private boolean closed;
+
+    /**
+     * Constructs an order history that keeps every order in memory.
+     */
+    public OrderHistory() {
+        this(DEFAULT_SEGMENT_CAPACITY, Integer.MAX_VALUE, null, Clock.systemUTC());
+    }
+
+    /**
+     * Constructs an order history that spills full segments to disk once more
+     * than {@code maxInMemorySegments} of them are held in memory.
+     *
+     * @param segmentCapacity The number of orders per segment
+     * @param maxInMemorySegments The number of full segments kept in memory
+     * @param spillDirectory The directory for spilled segments, or null to
+     * keep everything in memory. Each spilled segment gets its own uniquely
+     * named file, so several histories can share a directory.
+     * @param clock The clock used to timestamp orders
+     * @throws IllegalArgumentException if a capacity is not positive or the
+     * clock is null
+     */
+    public OrderHistory(int segmentCapacity, int maxInMemorySegments, Path spillDirectory, Clock clock) {
+        if (segmentCapacity <= 0 || maxInMemorySegments <= 0) {
+            throw new IllegalArgumentException("Segment capacity and in-memory segments must be greater than 0");
+        }
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.segmentCapacity = segmentCapacity;
+        this.maxInMemorySegments = maxInMemorySegments;
+        this.spillDirectory = spillDirectory;
+        this.clock = clock;
+        this.spiller = spillDirectory == null ? null : Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "quantum-bookstore-order-spiller");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Records a successful purchase.
+     *
+     * @param book The purchased book
+     * @param quantity The purchased quantity
+     * @param amountCents The amount paid in cents
+     * @param email The customer's email address
+     */
+    @Override
+    public void onPurchase(Book book, int quantity, long amountCents, String email) {
+        record(email, book.getISBN(), quantity, amountCents, clock.millis(), book.getClass().getSimpleName());
+    }
+
+    /**
+     * Appends an order. Strings are stored once in dictionaries and orders
+     * as primitive columns, so appending an order for a known customer and
+     * ISBN allocates nothing.
+     *
+     * @param email The customer's email address
+     * @param isbn The ISBN of the purchased book
+     * @param quantity The purchased quantity
+     * @param amountCents The amount paid in cents
+     * @param timestampMillis The purchase time in epoch milliseconds
+     * @param bookType The simple class name of the purchased book type
+     * @return The id of the recorded order, or -1 if the history is closed
+     * and the order was not recorded
+     */
+    public long record(String email, String isbn, int quantity, long amountCents, long timestampMillis,
+            String bookType) {
+        int isbnId = isbns.idOf(isbn);
+        byte typeId = (byte) bookTypes.idOf(bookType);
+        CustomerOrders orders = customers.computeIfAbsent(email, newCustomer);
+
+        long orderId;
+        synchronized (appendLock) {
+            if (closed) {
+                return -1;
+            }
+            Segment segment = active;
+            if (segment == null || segment.count == segmentCapacity) {
+                segment = roll();
+            }
+
+            int slot = segment.count;
+            Columns columns = segment.columns;
+            columns.isbnIds[slot] = isbnId;
+            columns.quantities[slot] = quantity;
+            columns.amounts[slot] = amountCents;
+            columns.timestamps[slot] = timestampMillis;
+            columns.bookTypes[slot] = typeId;
+            segment.minTimestamp = Math.min(segment.minTimestamp, timestampMillis);
+            segment.maxTimestamp = Math.max(segment.maxTimestamp, timestampMillis);
+            segment.totalAmountCents += amountCents;
+            segment.count = slot + 1;
+            orderId = segment.baseId + slot;
+        }
+
+        orders.add(orderId);
+        return orderId;
+    }
+
+    /**
+     * Gets all orders placed by a customer, oldest first.
+     *
+     * @param email The customer's email address
+     * @return A list of the customer's orders
+     * @throws IllegalStateException if the orders include a spilled segment
+     * and the history is closed
+     */
+    public List<OrderRecord> getOrders(String email) {
+        CustomerOrders orders = email == null ? null : customers.get(email);
+        if (orders == null) {
+            return new ArrayList<>();
+        }
+
+        long[] orderIds = orders.toSortedArray();
+        List<OrderRecord> result = new ArrayList<>(orderIds.length);
+        int i = 0;
+        while (i < orderIds.length) {
+            Segment segment = segments.get((int) (orderIds[i] / segmentCapacity));
+            int end = i;
+            while (end < orderIds.length && orderIds[end] / segmentCapacity == segment.baseId / segmentCapacity) {
+                end++;
+            }
+            for (; i < end; i++) {
+                result.add(decode(orderIds[i], segment, (int) (orderIds[i] - segment.baseId)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the revenue of all orders placed in a time range. Segments outside
+     * the range are skipped and segments fully inside it contribute their
+     * precomputed total, so only boundary segments are scanned.
+     *
+     * @param from The start of the range (inclusive)
+     * @param to The end of the range (exclusive)
+     * @return The revenue in cents
+     * @throws IllegalStateException if the orders include a spilled segment
+     * and the history is closed
+     */
+    public long getRevenueCents(Instant from, Instant to) {
+        long fromMillis = from.toEpochMilli();
+        long toMillis = to.toEpochMilli();
+        long revenue = 0;
+
+        for (Segment segment : segments) {
+            int count = segment.count;
+            if (count == 0 || segment.maxTimestamp < fromMillis || segment.minTimestamp >= toMillis) {
+                continue;
+            }
+            if (count == segmentCapacity && segment.minTimestamp >= fromMillis && segment.maxTimestamp < toMillis) {
+                revenue += segment.totalAmountCents;
+                continue;
+            }
+
+            for (int slot = 0; slot < count; slot++) {
+                long timestamp = segment.timestamp(slot);
+                if (timestamp >= fromMillis && timestamp < toMillis) {
+                    revenue += segment.amount(slot);
+                }
+            }
+        }
+        return revenue;
+    }
+
+    /**
+     * Gets the total number of recorded orders.
+     *
+     * @return The order count
+     */
+    public long getOrderCount() {
+        synchronized (appendLock) {
+            return active == null ? 0 : active.baseId + active.count;
+        }
+    }
+
+    /**
+     * Gets the number of segments that have been spilled to disk.
+     *
+     * @return The spilled segment count
+     */
+    public int getSpilledSegmentCount() {
+        int spilled = 0;
+        for (Segment segment : segments) {
+            if (segment.columns == null) {
+                spilled++;
+            }
+        }
+        return spilled;
+    }
+
+    /**
+     * Stops recording, waits for pending spills to finish and deletes the
+     * spilled segment files. Orders recorded afterwards are ignored. Segments
+     * still in memory stay readable, while queries that reach a spilled
+     * segment fail.
+     */
+    @Override
+    public void close() {
+        synchronized (appendLock) {
+            closed = true;
+        }
+        if (spiller == null) {
+            return;
+        }
+
+        spiller.shutdown();
+        try {
+            spiller.awaitTermination(SPILL_SHUTDOWN_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Segment segment : segments) {
+            Path file = segment.file;
+            if (file != null) {
+                segment.records = null;
+                deleteSpillFile(file);
+            }
+        }
+    }
+
+    /**
+     * Starts a new active segment and schedules the oldest full segments for
+     * spilling. Must be called while holding the append lock.
+     *
+     * @return The new active segment
+     */
+    private Segment roll() {
+        Segment segment = new Segment((long) segments.size() * segmentCapacity, segmentCapacity);
+        segments.add(segment);
+        active = segment;
+
+        if (spiller != null) {
+            int full = segments.size() - 1;
+            while (full - nextSpill > maxInMemorySegments) {
+                Segment oldest = segments.get(nextSpill++);
+                spiller.execute(() -> spill(oldest));
+            }
+        }
+        return segment;
+    }
+
+    /**
+     * Writes a full segment to a new uniquely named file, maps it read-only
+     * and releases the in-memory columns. Later reads go through the mapping,
+     * so a spilled segment is never read back into the heap.
+     *
+     * @param segment The segment to spill
+     */
+    private void spill(Segment segment) {
+        Path file = null;
+        Columns columns = segment.columns;
+        int size = segment.count;
+        try {
+            file = Files.createTempFile(spillDirectory, "orders-", ".seg");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+                for (int slot = 0; slot < size; slot++) {
+                    out.writeInt(columns.isbnIds[slot]);
+                    out.writeInt(columns.quantities[slot]);
+                    out.writeLong(columns.amounts[slot]);
+                    out.writeLong(columns.timestamps[slot]);
+                    out.writeByte(columns.bookTypes[slot]);
+                }
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                segment.records = channel.map(FileChannel.MapMode.READ_ONLY, 0, (long) size * RECORD_BYTES);
+            }
+        } catch (IOException e) {
+            System.out.println("Quantum book store: Failed to spill order segment " + segment.baseId + ": "
+                    + e.getMessage());
+            if (file != null) {
+                deleteSpillFile(file);
+            }
+            return;
+        }
+        segment.file = file;
+        segment.columns = null;
+    }
+
+    /**
+     * Deletes a spilled segment file, leaving it for deletion on exit if the
+     * platform refuses to delete it now.
+     *
+     * @param file The file to delete
+     */
+    private static void deleteSpillFile(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            file.toFile().deleteOnExit();
+        }
+    }
+
+    /**
+     * Decodes one order from its segment.
+     *
+     * @param orderId The order id
+     * @param segment The segment holding the order
+     * @param slot The position of the order in the segment
+     * @return The decoded order
+     * @throws IllegalStateException if the segment was spilled and the
+     * history has since been closed
+     */
+    private OrderRecord decode(long orderId, Segment segment, int slot) {
+        return new OrderRecord(orderId, isbns.nameOf(segment.isbnId(slot)), segment.quantity(slot),
+                segment.amount(slot), segment.timestamp(slot), bookTypes.nameOf(segment.bookType(slot)));
+    }
+
+    /**
+     * A fixed-capacity run of consecutive orders, stored column by column in
+     * memory or, once spilled, in a memory-mapped file of fixed-size records.
+     */
+    private static final class Segment {
+
+        private final long baseId;
+        private volatile Columns columns;
+        private volatile ByteBuffer records;
+        private volatile Path file;
+        private volatile int count;
+        private volatile long minTimestamp = Long.MAX_VALUE;
+        private volatile long maxTimestamp = Long.MIN_VALUE;
+        private volatile long totalAmountCents;
+
+        private Segment(long baseId, int capacity) {
+            this.baseId = baseId;
+            this.columns = new Columns(capacity);
+        }
+
+        private int isbnId(int slot) {
+            Columns inMemory = columns;
+            return inMemory != null ? inMemory.isbnIds[slot] : records().getInt(slot * RECORD_BYTES);
+        }
+
+        private int quantity(int slot) {
+            Columns inMemory = columns;
+            return inMemory != null ? inMemory.quantities[slot] : records().getInt(slot * RECORD_BYTES + 4);
+        }
+
+        private long amount(int slot) {
+            Columns inMemory = columns;
+            return inMemory != null ? inMemory.amounts[slot] : records().getLong(slot * RECORD_BYTES + 8);
+        }
+
+        private long timestamp(int slot) {
+            Columns inMemory = columns;
+            return inMemory != null ? inMemory.timestamps[slot] : records().getLong(slot * RECORD_BYTES + 16);
+        }
+
+        private byte bookType(int slot) {
+            Columns inMemory = columns;
+            return inMemory != null ? inMemory.bookTypes[slot] : records().get(slot * RECORD_BYTES + 24);
+        }
+
+        /**
+         * Gets the mapped records of this spilled segment.
+         *
+         * @return The mapped records
+         * @throws IllegalStateException if the history was closed and the
+         * segment file deleted
+         */
+        private ByteBuffer records() {
+            ByteBuffer mapped = records;
+            if (mapped == null) {
+                throw new IllegalStateException("Quantum book store: Order segment " + baseId
+                        + " was spilled and the order history is closed");
+            }
+            return mapped;
+        }
+    }
+
+    /**
+     * The primitive columns of a segment.
+     */
+    private static final class Columns {
+
+        private final int[] isbnIds;
+        private final int[] quantities;
+        private final long[] amounts;
+        private final long[] timestamps;
+        private final byte[] bookTypes;
+
+        private Columns(int capacity) {
+            this.isbnIds = new int[capacity];
+            this.quantities = new int[capacity];
+            this.amounts = new long[capacity];
+            this.timestamps = new long[capacity];
+            this.bookTypes = new byte[capacity];
+        }
+    }
+
+    /**
+     * The growable list of order ids placed by one customer.
+     */
+    private static final class CustomerOrders {
+
+        private long[] orderIds = new long[4];
+        private int size;
+
+        private synchronized void add(long orderId) {
+            if (size == orderIds.length) {
+                orderIds = Arrays.copyOf(orderIds, size * 2);
+            }
+            orderIds[size++] = orderId;
+        }
+
+        private synchronized long[] toSortedArray() {
+            long[] copy = Arrays.copyOf(orderIds, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+
+    /**
+     * Maps repeated strings such as ISBNs to compact integer ids.
+     */
+    private static final class Dictionary {
+
+        private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+        private final List<String> names = new ArrayList<>();
+
+        private int idOf(String name) {
+            Integer id = ids.get(name);
+            if (id != null) {
+                return id;
+            }
+            synchronized (this) {
+                id = ids.get(name);
+                if (id == null) {
+                    id = names.size();
+                    names.add(name);
+                    ids.put(name, id);
+                }
+                return id;
+            }
+        }
+
+        private synchronized String nameOf(int id) {
+            return names.get(id);
+        }
+    }
+}
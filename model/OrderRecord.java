@@ -0,0 +1,102 @@
+package model;
+
+import java.time.Instant;
+import pricing.Money;
+
+public final class OrderRecord {
+
+    private final long orderId;
+    private final String isbn;
+    private final int quantity;
+    private final long amountCents;
+    private final long timestampMillis;
+    private final String bookType;
+
+    /**
+     * Constructs an order record decoded from the order history.
+     *
+     * @param orderId The sequence number of the order
+     * @param isbn The ISBN of the purchased book
+     * @param quantity The purchased quantity
+     * @param amountCents The amount paid in cents
+     * @param timestampMillis The purchase time in epoch milliseconds
+     * @param bookType The simple class name of the purchased book type
+     */
+    OrderRecord(long orderId, String isbn, int quantity, long amountCents, long timestampMillis, String bookType) {
+        this.orderId = orderId;
+        this.isbn = isbn;
+        this.quantity = quantity;
+        this.amountCents = amountCents;
+        this.timestampMillis = timestampMillis;
+        this.bookType = bookType;
+    }
+
+    /**
+     * Gets the sequence number of the order.
+     *
+     * @return The order id
+     */
+    public long getOrderId() {
+        return orderId;
+    }
+
+    /**
+     * Gets the ISBN of the purchased book.
+     *
+     * @return The ISBN string identifier
+     */
+    public String getISBN() {
+        return isbn;
+    }
+
+    /**
+     * Gets the purchased quantity.
+     *
+     * @return The quantity
+     */
+    public int getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * Gets the amount paid in cents.
+     *
+     * @return The amount in cents
+     */
+    public long getAmountCents() {
+        return amountCents;
+    }
+
+    /**
+     * Gets the amount paid.
+     *
+     * @return The amount paid
+     */
+    public double getAmount() {
+        return Money.toAmount(amountCents);
+    }
+
+    /**
+     * Gets the purchase time.
+     *
+     * @return The purchase instant
+     */
+    public Instant getTimestamp() {
+        return Instant.ofEpochMilli(timestampMillis);
+    }
+
+    /**
+     * Gets the type of the purchased book (e.g., "PaperBook").
+     *
+     * @return The simple class name of the book type
+     */
+    public String getBookType() {
+        return bookType;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("OrderRecord{orderId=%d, isbn='%s', quantity=%d, amount=%s, timestamp=%s, type='%s'}",
+                orderId, isbn, quantity, Money.format(amountCents), getTimestamp(), bookType);
+    }
+}
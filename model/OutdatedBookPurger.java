@@ -0,0 +1,198 @@
+package model;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+public class OutdatedBookPurger implements AutoCloseable {
+
+    private static final int DEFAULT_CHUNK_SIZE = 256;
+    private static final Duration DEFAULT_SLICE_BUDGET = Duration.ofMillis(2);
+    private static final Duration DEFAULT_PAUSE = Duration.ofMillis(1);
+
+    private final QuantumBookstore bookstore;
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownsScheduler;
+    private final int chunkSize;
+    private final long sliceBudgetNanos;
+    private final long pauseNanos;
+    private final Clock clock;
+
+    /**
+     * Constructs a purger with its own background thread that removes up to
+     * 256 books per chunk, works for at most 2 ms per slice and pauses 1 ms
+     * between slices.
+     *
+     * @param bookstore The bookstore to purge
+     */
+    public OutdatedBookPurger(QuantumBookstore bookstore) {
+        this(bookstore, Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "quantum-bookstore-purger");
+            thread.setDaemon(true);
+            return thread;
+        }), true, DEFAULT_CHUNK_SIZE, DEFAULT_SLICE_BUDGET, DEFAULT_PAUSE, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Constructs a purger that runs on a caller-owned scheduler.
+     *
+     * @param bookstore The bookstore to purge
+     * @param scheduler The scheduler running the time slices
+     * @param chunkSize The number of books examined per chunk
+     * @param sliceBudget The time a slice may keep working before yielding
+     * @param pause The delay between slices
+     * @param clock The clock used to determine the current year
+     */
+    public OutdatedBookPurger(QuantumBookstore bookstore, ScheduledExecutorService scheduler, int chunkSize,
+            Duration sliceBudget, Duration pause, Clock clock) {
+        this(bookstore, scheduler, false, chunkSize, sliceBudget, pause, clock);
+    }
+
+    private OutdatedBookPurger(QuantumBookstore bookstore, ScheduledExecutorService scheduler,
+            boolean ownsScheduler, int chunkSize, Duration sliceBudget, Duration pause, Clock clock) {
+        if (bookstore == null || scheduler == null || clock == null) {
+            throw new IllegalArgumentException("Bookstore, scheduler and clock cannot be null");
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be greater than 0");
+        }
+        if (sliceBudget == null || pause == null || sliceBudget.isNegative() || pause.isNegative()) {
+            throw new IllegalArgumentException("Slice budget and pause cannot be negative");
+        }
+        this.bookstore = bookstore;
+        this.scheduler = scheduler;
+        this.ownsScheduler = ownsScheduler;
+        this.chunkSize = chunkSize;
+        this.sliceBudgetNanos = sliceBudget.toNanos();
+        this.pauseNanos = pause.toNanos();
+        this.clock = clock;
+    }
+
+    /**
+     * Starts purging books older than the specified number of years.
+     *
+     * @param yearsThreshold The number of years to consider a book outdated
+     * @param sink Receives every removed book as it is removed
+     * @return A future completing with the number of removed books; cancel it
+     * to stop the purge after the current chunk
+     * @throws IllegalArgumentException if the threshold is negative
+     */
+    public CompletableFuture<Long> purgeOlderThan(int yearsThreshold, Consumer<? super Book> sink) {
+        if (yearsThreshold < 0) {
+            throw new IllegalArgumentException("Years threshold cannot be negative");
+        }
+        return purgePublishedBefore(Year.now(clock).minusYears(yearsThreshold), sink);
+    }
+
+    /**
+     * Starts purging books published before the cutoff year. The purge works
+     * through the inventory in bounded time slices on the scheduler, so
+     * purchases and searches keep running while it progresses.
+     *
+     * @param cutoff The first year that is not outdated
+     * @param sink Receives every removed book as it is removed; if it throws,
+     * the books of the current chunk it has not accepted are put back and the
+     * purge stops with the sink's exception
+     * @return A future completing with the number of removed books; cancel it
+     * to stop the purge after the current chunk
+     */
+    public CompletableFuture<Long> purgePublishedBefore(Year cutoff, Consumer<? super Book> sink) {
+        if (cutoff == null || sink == null) {
+            throw new IllegalArgumentException("Cutoff and sink cannot be null");
+        }
+        PurgeTask task = new PurgeTask(cutoff.getValue(), sink);
+        scheduler.execute(task);
+        return task.result;
+    }
+
+    /**
+     * Shuts down the background thread if this purger created it.
+     */
+    @Override
+    public void close() {
+        if (ownsScheduler) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * One purge, resumed slice by slice from where the previous slice stopped.
+     */
+    private final class PurgeTask implements Runnable {
+
+        private final int cutoffYear;
+        private final Consumer<? super Book> sink;
+        private final Iterator<Book> books;
+        private final CompletableFuture<Long> result = new CompletableFuture<>();
+        private final List<Book> chunk = new ArrayList<>();
+        private long removed;
+
+        private PurgeTask(int cutoffYear, Consumer<? super Book> sink) {
+            this.cutoffYear = cutoffYear;
+            this.sink = sink;
+            this.books = bookstore.inventoryIterator();
+        }
+
+        @Override
+        public void run() {
+            if (result.isDone()) {
+                bookstore.refreshCatalog();
+                return;
+            }
+
+            try {
+                long deadline = System.nanoTime() + sliceBudgetNanos;
+                do {
+                    purgeChunk();
+                } while (books.hasNext() && System.nanoTime() < deadline);
+
+                if (books.hasNext()) {
+                    scheduler.schedule(this, pauseNanos, TimeUnit.NANOSECONDS);
+                    return;
+                }
+
+                bookstore.refreshCatalog();
+                System.out.println("Quantum book store: Purged " + removed + " outdated books (published before "
+                        + cutoffYear + ")");
+                result.complete(removed);
+            } catch (RuntimeException e) {
+                bookstore.refreshCatalog();
+                result.completeExceptionally(e);
+            }
+        }
+
+        /**
+         * Examines the next chunk of books and removes the outdated ones. If
+         * the sink fails, the removed books it has not accepted are restored
+         * so that no book leaves the inventory without being archived.
+         */
+        private void purgeChunk() {
+            chunk.clear();
+            for (int i = 0; i < chunkSize && books.hasNext(); i++) {
+                Book book = books.next();
+                if (book.getPublishYear() < cutoffYear) {
+                    chunk.add(book);
+                }
+            }
+
+            List<Book> removedBooks = bookstore.removeBooks(chunk);
+            for (int i = 0; i < removedBooks.size(); i++) {
+                try {
+                    sink.accept(removedBooks.get(i));
+                } catch (RuntimeException e) {
+                    bookstore.restoreBooks(removedBooks.subList(i, removedBooks.size()));
+                    throw e;
+                }
+                removed++;
+            }
+        }
+    }
+}
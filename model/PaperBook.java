@@ -1,13 +1,15 @@
 package model;
 
-import service.*;
+import pricing.Money;
+import service.DeliveryGateway;
 
 public class PaperBook extends Book {
 
-    private int stock;
+    private final WarehouseStock stock;
 
     /**
-     * Constructs a new PaperBook with the specified details and stock quantity.
+     * Constructs a new PaperBook with the specified details and stock quantity
+     * held in the {@link Warehouse#DEFAULT} warehouse.
      *
      * @param isbn The unique identifier for the book
      * @param title The title of the book
@@ -17,26 +19,56 @@ public class PaperBook extends Book {
      * @param stock The initial stock quantity
      */
     public PaperBook(String isbn, String title, int publishYear, double price, String authorName, int stock) {
+        this(isbn, title, publishYear, price, authorName, new WarehouseStock(Warehouse.DEFAULT, stock));
+    }
+
+    /**
+     * Constructs a new PaperBook with the specified details and stock spread
+     * over several warehouses.
+     *
+     * @param isbn The unique identifier for the book
+     * @param title The title of the book
+     * @param publishYear The year when the book was published
+     * @param price The price of the book
+     * @param authorName The name of the book's author
+     * @param stock The stock held per warehouse
+     * @throws IllegalArgumentException if stock is null
+     */
+    public PaperBook(String isbn, String title, int publishYear, double price, String authorName,
+            WarehouseStock stock) {
         super(isbn, title, publishYear, price, authorName);
+        if (stock == null) {
+            throw new IllegalArgumentException("Stock cannot be null");
+        }
         this.stock = stock;
     }
 
     /**
-     * Gets the current stock quantity of the paper book.
+     * Gets the current stock quantity of the paper book across all warehouses.
      *
      * @return The current stock count
      */
     public int getStock() {
+        return stock.getTotal();
+    }
+
+    /**
+     * Gets the stock held per warehouse.
+     *
+     * @return The warehouse stock
+     */
+    public WarehouseStock getWarehouseStock() {
         return stock;
     }
 
     /**
-     * Sets the stock quantity of the paper book.
+     * Sets the stock quantity of the paper book. The whole quantity is placed
+     * in the first warehouse and the others are emptied.
      *
      * @param stock The new stock quantity
      */
     public void setStock(int stock) {
-        this.stock = stock;
+        this.stock.reset(stock);
     }
 
     /**
@@ -47,10 +79,25 @@ public class PaperBook extends Book {
      * stock
      */
     public void reduceStock(int quantity) {
-        if (quantity > stock) {
-            throw new IllegalArgumentException("Insufficient stock. Available: " + stock + ", Requested: " + quantity);
+        if (!tryReduceStock(quantity)) {
+            throw new IllegalArgumentException("Insufficient stock. Available: " + getStock()
+                    + ", Requested: " + quantity);
+        }
+    }
+
+    /**
+     * Reduces the stock by the specified quantity if enough is available.
+     * Checking and reducing happen atomically; with several warehouses the
+     * quantity is taken from the cheapest ones first.
+     *
+     * @param quantity The quantity to reduce
+     * @return true if the stock was reduced, false if it was insufficient
+     */
+    public boolean tryReduceStock(int quantity) {
+        if (stock.isSingleWarehouse()) {
+            return stock.tryTake(0, quantity);
         }
-        stock -= quantity;
+        return stock.allocate(this, quantity, null) != null;
     }
 
     /**
@@ -61,7 +108,7 @@ public class PaperBook extends Book {
      */
     @Override
     public boolean isAvailable(int quantity) {
-        return stock >= quantity;
+        return stock.getTotal() >= quantity;
     }
 
     /**
@@ -69,22 +116,22 @@ public class PaperBook extends Book {
      * to shipping service.
      *
      * @param quantity The quantity to purchase
+     * @param unitPriceCents The effective unit price in cents
      * @param email The customer's email address
      * @param address The customer's shipping address
+     * @param gateway The gateway used to ship the book
      * @return The total amount paid
      * @throws IllegalArgumentException if insufficient stock is available
      */
     @Override
-    public double purchase(int quantity, String email, String address) {
-        if (!isAvailable(quantity)) {
+    public double purchase(int quantity, long unitPriceCents, String email, String address,
+            DeliveryGateway gateway) {
+        // Reserve stock and send to shipping service
+        if (fulfil(quantity, email, address, gateway) != PurchaseStatus.OK) {
             throw new IllegalArgumentException("Insufficient stock for paper book: " + getTitle());
         }
 
-        reduceStock(quantity);
-        double totalAmount = getPrice() * quantity;
-
-        // Send to shipping service
-        ShippingService.shipBook(this, quantity, address);
+        double totalAmount = Money.toAmount(Money.multiply(unitPriceCents, quantity));
 
         System.out.println("Quantum book store: Paper book '" + getTitle() + "' purchased. Quantity: " + quantity
                 + ", Total: $" + totalAmount);
@@ -92,9 +139,43 @@ public class PaperBook extends Book {
         return totalAmount;
     }
 
+    /**
+     * Reserves stock and ships the paper books. With several warehouses the
+     * order ships from the cheapest warehouse that holds the whole quantity,
+     * or is split across warehouses in order of shipping cost.
+     *
+     * @param quantity The quantity to purchase
+     * @param email The customer's email address
+     * @param address The customer's shipping address
+     * @param gateway The gateway used to ship the book
+     * @return {@link PurchaseStatus#OK} if shipped, or
+     * {@link PurchaseStatus#OUT_OF_STOCK} if the stock was insufficient
+     */
+    @Override
+    public PurchaseStatus fulfil(int quantity, String email, String address, DeliveryGateway gateway) {
+        if (stock.isSingleWarehouse()) {
+            if (!stock.tryTake(0, quantity)) {
+                return PurchaseStatus.OUT_OF_STOCK;
+            }
+            gateway.shipBook(this, quantity, address);
+            return PurchaseStatus.OK;
+        }
+
+        int[] allocation = stock.allocate(this, quantity, address);
+        if (allocation == null) {
+            return PurchaseStatus.OUT_OF_STOCK;
+        }
+        for (int i = 0; i < allocation.length; i++) {
+            if (allocation[i] > 0) {
+                gateway.shipBook(this, allocation[i], address, stock.getWarehouse(i));
+            }
+        }
+        return PurchaseStatus.OK;
+    }
+
     @Override
     public String toString() {
         return String.format("PaperBook{isbn='%s', title='%s', publishYear=%d, price=%.2f, authorName='%s', stock=%d}",
-                getISBN(), getTitle(), getPublishYear(), getPrice(), getAuthorName(), stock);
+                getISBN(), getTitle(), getPublishYear(), getPrice(), getAuthorName(), getStock());
     }
 }
@@ -0,0 +1,14 @@
+package model;
+
+public interface PriceChangeListener {
+
+    /**
+     * Called after the price of a book has changed through
+     * {@link Book#setPrice(double)}.
+     *
+     * @param book The book whose price changed
+     * @param oldPrice The price before the change
+     * @param newPrice The price after the change
+     */
+    void onPriceChanged(Book book, double oldPrice, double newPrice);
+}
@@ -0,0 +1,261 @@
+package model;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+public class PriceIndex implements PriceChangeListener {
+
+    private final ConcurrentSkipListSet<Entry> entries = new ConcurrentSkipListSet<>();
+    private final Map<String, Entry> byIsbn = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a book to the index, replacing any entry with the same ISBN.
+     *
+     * @param book The book to index
+     */
+    public void add(Book book) {
+        byIsbn.compute(book.getISBN(), (isbn, current) -> {
+            if (current != null) {
+                entries.remove(current);
+            }
+            Entry entry = new Entry(book.getPrice(), isbn, book);
+            entries.add(entry);
+            return entry;
+        });
+    }
+
+    /**
+     * Removes a book from the index. Nothing happens if the ISBN is indexed
+     * for a different book instance.
+     *
+     * @param book The book to remove
+     */
+    public void remove(Book book) {
+        byIsbn.computeIfPresent(book.getISBN(), (isbn, current) -> {
+            if (current.book != book) {
+                return current;
+            }
+            entries.remove(current);
+            return null;
+        });
+    }
+
+    /**
+     * Moves a book to its new position in the price order. The price is
+     * re-read from the book inside the update rather than taken from the
+     * callback, because callbacks of concurrent price changes can arrive out
+     * of order; whichever callback runs last then indexes the latest price.
+     *
+     * @param book The book whose price changed
+     * @param oldPrice The price before the change
+     * @param newPrice The price after the change
+     */
+    @Override
+    public void onPriceChanged(Book book, double oldPrice, double newPrice) {
+        byIsbn.computeIfPresent(book.getISBN(), (isbn, current) -> {
+            if (current.book != book) {
+                return current;
+            }
+            double price = book.getPrice();
+            if (current.price == price) {
+                return current;
+            }
+            entries.remove(current);
+            Entry entry = new Entry(price, isbn, book);
+            entries.add(entry);
+            return entry;
+        });
+    }
+
+    /**
+     * Finds books whose price lies within the given range, cheapest first.
+     *
+     * @param minPrice The lowest price to include
+     * @param maxPrice The highest price to include
+     * @return A list of books in ascending price order
+     */
+    public List<Book> findByPriceRange(double minPrice, double maxPrice) {
+        List<Book> result = new ArrayList<>();
+        for (Entry entry : entries.subSet(Entry.lowerBound(minPrice), true, Entry.upperBound(maxPrice), true)) {
+            result.add(entry.book);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the cheapest books.
+     *
+     * @param count The maximum number of books to return
+     * @return A list of at most {@code count} books in ascending price order
+     */
+    public List<Book> cheapest(int count) {
+        return collect(entries.iterator(), 0, count);
+    }
+
+    /**
+     * Gets the most expensive books.
+     *
+     * @param count The maximum number of books to return
+     * @return A list of at most {@code count} books in descending price order
+     */
+    public List<Book> mostExpensive(int count) {
+        return collect(entries.descendingIterator(), 0, count);
+    }
+
+    /**
+     * Gets the books that follow a position in ascending price order. Unlike
+     * {@link #page(int, int)}, this seeks straight to the position, so deep
+     * pages cost O(log n) to reach instead of O(offset).
+     *
+     * @param price The price of the last book already seen
+     * @param isbn The ISBN of the last book already seen, or null to start
+     * before every book at that price
+     * @param limit The maximum number of books to return
+     * @return The books after the position, cheapest first
+     */
+    public List<Book> after(double price, String isbn, int limit) {
+        Entry position = isbn == null ? Entry.lowerBound(price) : new Entry(price, isbn, null);
+        return collect(entries.tailSet(position, false).iterator(), 0, limit);
+    }
+
+    /**
+     * Gets one page of books in ascending price order. Reaching a page walks
+     * past every earlier entry; use {@link #after(double, String, int)} for
+     * deep paging.
+     *
+     * @param page The zero-based page number
+     * @param pageSize The number of books per page
+     * @return The books on the requested page
+     */
+    public List<Book> page(int page, int pageSize) {
+        return collect(entries.iterator(), (long) page * pageSize, pageSize);
+    }
+
+    /**
+     * Gets the number of indexed books.
+     *
+     * @return The indexed book count
+     */
+    public int size() {
+        return byIsbn.size();
+    }
+
+    /**
+     * Checks whether a book is indexed under its current ISBN at its current
+     * price.
+     *
+     * @param book The book to check
+     * @return true if the book's entry is present and up to date
+     */
+    boolean isIndexed(Book book) {
+        Entry entry = byIsbn.get(book.getISBN());
+        return entry != null && entry.book == book && entry.price == book.getPrice() && entries.contains(entry);
+    }
+
+    /**
+     * Gets the book indexed under an ISBN.
+     *
+     * @param isbn The ISBN to look up
+     * @return The indexed book, or null if none
+     */
+    Book getIndexedBook(String isbn) {
+        Entry entry = byIsbn.get(isbn);
+        return entry == null ? null : entry.book;
+    }
+
+    /**
+     * Gets the ISBNs that have an index entry.
+     *
+     * @return A live, unmodifiable view of the indexed ISBNs
+     */
+    Set<String> getIsbns() {
+        return Collections.unmodifiableSet(byIsbn.keySet());
+    }
+
+    /**
+     * Removes whatever entry is indexed under an ISBN, regardless of the book
+     * instance.
+     *
+     * @param isbn The ISBN to remove
+     */
+    void removeIsbn(String isbn) {
+        byIsbn.computeIfPresent(isbn, (key, current) -> {
+            entries.remove(current);
+            return null;
+        });
+    }
+
+    /**
+     * Collects books from an iterator after skipping a number of entries.
+     *
+     * @param iterator The iterator over index entries
+     * @param skip The number of entries to skip
+     * @param count The maximum number of books to collect
+     * @return The collected books
+     */
+    private static List<Book> collect(Iterator<Entry> iterator, long skip, int count) {
+        List<Book> result = new ArrayList<>(Math.min(count, 64));
+        for (long i = 0; i < skip && iterator.hasNext(); i++) {
+            iterator.next();
+        }
+        while (result.size() < count && iterator.hasNext()) {
+            result.add(iterator.next().book);
+        }
+        return result;
+    }
+
+    /**
+     * An immutable index entry ordered by price, then by ISBN. Entries with a
+     * null ISBN are range bounds that sort before or after every book at the
+     * same price.
+     */
+    private static final class Entry implements Comparable<Entry> {
+
+        private final double price;
+        private final String isbn;
+        private final Book book;
+        private final int bound;
+
+        private Entry(double price, String isbn, Book book) {
+            this(price, isbn, book, 0);
+        }
+
+        private Entry(double price, String isbn, Book book, int bound) {
+            this.price = price;
+            this.isbn = isbn;
+            this.book = book;
+            this.bound = bound;
+        }
+
+        private static Entry lowerBound(double price) {
+            return new Entry(price, null, null, -1);
+        }
+
+        private static Entry upperBound(double price) {
+            return new Entry(price, null, null, 1);
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int byPrice = Double.compare(price, other.price);
+            if (byPrice != 0) {
+                return byPrice;
+            }
+            if (bound != 0 || other.bound != 0) {
+                return Integer.compare(bound, other.bound);
+            }
+            return isbn.compareTo(other.isbn);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Entry && compareTo((Entry) obj) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(price, isbn, bound);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package model;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+public class PurchaseDeduplicator {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry> expiryQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final long windowMillis;
+    private final int maxEntries;
+    private final Clock clock;
+
+    /**
+     * Constructs a deduplicator that remembers up to 100,000 keys for ten
+     * minutes.
+     */
+    public PurchaseDeduplicator() {
+        this(Duration.ofMinutes(10), 100_000, Clock.systemUTC());
+    }
+
+    /**
+     * Constructs a deduplicator.
+     *
+     * @param window How long a completed purchase is remembered
+     * @param maxEntries The maximum number of keys remembered at once; when
+     * exceeded, the oldest keys are forgotten early
+     * @param clock The clock used to expire keys
+     * @throws IllegalArgumentException if the window is not positive, the
+     * maximum is not positive or the clock is null
+     */
+    public PurchaseDeduplicator(Duration window, int maxEntries, Clock clock) {
+        if (window == null || window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("Deduplication window must be positive");
+        }
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Maximum entries must be greater than 0");
+        }
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.windowMillis = window.toMillis();
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    /**
+     * Runs a purchase at most once per idempotency key within the window.
+     * Keys are scoped by the customer's email, so two customers choosing the
+     * same key never see each other's purchases. If the customer already used
+     * the key for a successful purchase of the same ISBN and quantity, its
+     * outcome is replayed into the result without running the purchase again;
+     * if they used it for a different purchase, the request is rejected with
+     * {@link PurchaseStatus#IDEMPOTENCY_CONFLICT}. If a purchase with the same
+     * key is in flight, this call waits for it. Failed purchases are not
+     * remembered, since they changed nothing, so a retry of a failed key runs
+     * again. Only successful purchases count toward the capacity, and a key
+     * is queued for expiry only once its purchase has finished, so neither
+     * failures nor in-flight purchases can push remembered keys out.
+     *
+     * @param key The idempotency key
+     * @param request The purchase request the key identifies
+     * @param result The result to record the outcome in
+     * @param purchase The purchase to run if the key is new
+     * @return The status of the original or new purchase
+     */
+    PurchaseStatus execute(String key, PurchaseRequest request, PurchaseResult result,
+            Function<PurchaseResult, PurchaseStatus> purchase) {
+        String scopedKey = request.getEmail() + '\n' + key;
+        while (true) {
+            long now = clock.millis();
+            Entry fresh = new Entry(scopedKey, request);
+            Entry existing = entries.putIfAbsent(scopedKey, fresh);
+
+            if (existing != null) {
+                if (existing.expiresAtMillis > now) {
+                    if (!existing.matches(request)) {
+                        return result.complete(PurchaseStatus.IDEMPOTENCY_CONFLICT, null, 0L);
+                    }
+                    if (existing.await()) {
+                        return result.replay(existing.status, existing.book, existing.amountCents);
+                    }
+                    continue;
+                }
+                if (!entries.replace(scopedKey, existing, fresh)) {
+                    continue;
+                }
+            }
+
+            evict(now);
+            return run(fresh, result, purchase);
+        }
+    }
+
+    /**
+     * Gets the number of idempotency keys currently remembered.
+     *
+     * @return The remembered key count
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Creates an empty deduplicator with the same window, capacity and clock.
+     *
+     * @return The empty copy
+     */
+    PurchaseDeduplicator emptyCopy() {
+        return new PurchaseDeduplicator(Duration.ofMillis(windowMillis), maxEntries, clock);
+    }
+
+    /**
+     * Runs the purchase for a newly claimed key and publishes its outcome to
+     * any waiting duplicates. A successful purchase starts its window and is
+     * queued for expiry; a failed one is forgotten.
+     *
+     * @param entry The claimed entry
+     * @param result The result to record the outcome in
+     * @param purchase The purchase to run
+     * @return The purchase status
+     */
+    private PurchaseStatus run(Entry entry, PurchaseResult result, Function<PurchaseResult, PurchaseStatus> purchase) {
+        boolean succeeded = false;
+        try {
+            PurchaseStatus status = purchase.apply(result);
+            succeeded = status == PurchaseStatus.OK;
+            if (succeeded) {
+                entry.status = status;
+                entry.book = result.getBook();
+                entry.amountCents = result.getAmountCents();
+            }
+            return status;
+        } finally {
+            if (succeeded) {
+                long now = clock.millis();
+                entry.expiresAtMillis = now + windowMillis;
+                entry.finish(true);
+                expiryQueue.add(entry);
+                queued.incrementAndGet();
+                evict(now);
+            } else {
+                entries.remove(entry.key, entry);
+                entry.finish(false);
+            }
+        }
+    }
+
+    /**
+     * Forgets expired keys, and the oldest keys while over capacity. Keys
+     * are queued when their purchase succeeds and all share the same window,
+     * so the head of the queue is always the next to expire. The queue only
+     * holds finished purchases.
+     *
+     * @param now The current time in epoch milliseconds
+     */
+    private void evict(long now) {
+        Entry head;
+        while ((head = expiryQueue.peek()) != null
+                && (head.expiresAtMillis <= now || queued.get() > maxEntries)) {
+            if (expiryQueue.remove(head)) {
+                queued.decrementAndGet();
+                entries.remove(head.key, head);
+            }
+        }
+    }
+
+    /**
+     * A remembered idempotency key, the fingerprint of the purchase it was
+     * used for and the outcome of that purchase.
+     */
+    private static final class Entry {
+
+        private final String key;
+        private final String isbn;
+        private final int quantity;
+        private final String email;
+        private volatile long expiresAtMillis = Long.MAX_VALUE;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile boolean succeeded;
+        private PurchaseStatus status;
+        private Book book;
+        private long amountCents;
+
+        private Entry(String key, PurchaseRequest request) {
+            this.key = key;
+            this.isbn = request.getISBN();
+            this.quantity = request.getQuantity();
+            this.email = request.getEmail();
+        }
+
+        /**
+         * Checks whether a request is the same purchase as the one this key
+         * was used for.
+         *
+         * @param request The request to compare
+         * @return true if the ISBN, quantity and email match
+         */
+        private boolean matches(PurchaseRequest request) {
+            return isbn.equals(request.getISBN()) && quantity == request.getQuantity()
+                    && email.equals(request.getEmail());
+        }
+
+        private void finish(boolean succeeded) {
+            this.succeeded = succeeded;
+            done.countDown();
+        }
+
+        /**
+         * Waits for the purchase that claimed this key to finish.
+         *
+         * @return true if it succeeded and can be replayed, false otherwise
+         */
+        private boolean await() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    done.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            return succeeded;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package model;
+
+public interface PurchaseListener {
+
+    /**
+     * Called after a purchase has succeeded. Listeners run on the purchasing
+     * thread, so they should return quickly. Exceptions thrown here are
+     * logged by the store and do not affect the purchase.
+     *
+     * @param book The purchased book
+     * @param quantity The purchased quantity
+     * @param amountCents The amount paid in cents
+     * @param email The customer's email address
+     */
+    void onPurchase(Book book, int quantity, long amountCents, String email);
+}
@@ -0,0 +1,278 @@
+package model;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class PurchaseRateLimiter {
+
+    private static final int EVICTION_SAMPLE = 8;
+
+    private final long customerIntervalNanos;
+    private final long customerToleranceNanos;
+    private final Bucket[] globalStripes;
+    private final long stripeIntervalNanos;
+    private final long[] stripeToleranceNanos;
+    private final Map<String, Bucket> customers = new ConcurrentHashMap<>();
+    private final AtomicInteger trackedCustomers = new AtomicInteger();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final int maxCustomers;
+    private Iterator<Map.Entry<String, Bucket>> evictionCursor;
+
+    /**
+     * Constructs a rate limiter remembering up to 100,000 active customers.
+     *
+     * @param customerPermitsPerSecond The sustained purchase rate per customer
+     * @param customerBurst The number of purchases a customer may make at once
+     * @param globalPermitsPerSecond The sustained purchase rate of the store
+     * @param globalBurst The number of purchases the store accepts at once
+     */
+    public PurchaseRateLimiter(double customerPermitsPerSecond, int customerBurst, double globalPermitsPerSecond,
+            int globalBurst) {
+        this(customerPermitsPerSecond, customerBurst, globalPermitsPerSecond, globalBurst, 100_000);
+    }
+
+    /**
+     * Constructs a rate limiter. Limits are enforced with the generic cell
+     * rate algorithm, which keeps each bucket in a single atomic long. The
+     * global bucket is split into one stripe per processor so that threads do
+     * not all compete for the same counter.
+     *
+     * @param customerPermitsPerSecond The sustained purchase rate per customer
+     * @param customerBurst The number of purchases a customer may make at once
+     * @param globalPermitsPerSecond The sustained purchase rate of the store
+     * @param globalBurst The number of purchases the store accepts at once
+     * @param maxCustomers The maximum number of customer buckets kept; when it
+     * is reached, a new customer replaces the longest idle bucket among a
+     * small sample, and an evicted customer starts with a full bucket, so the
+     * global limit stays the hard cap
+     * @throws IllegalArgumentException if any rate, burst or maximum is not
+     * positive
+     */
+    public PurchaseRateLimiter(double customerPermitsPerSecond, int customerBurst, double globalPermitsPerSecond,
+            int globalBurst, int maxCustomers) {
+        if (!(customerPermitsPerSecond > 0) || !(globalPermitsPerSecond > 0)) {
+            throw new IllegalArgumentException("Permits per second must be greater than 0");
+        }
+        if (customerBurst <= 0 || globalBurst <= 0 || maxCustomers <= 0) {
+            throw new IllegalArgumentException("Burst sizes and maximum customers must be greater than 0");
+        }
+
+        this.customerIntervalNanos = intervalNanos(customerPermitsPerSecond);
+        this.customerToleranceNanos = customerIntervalNanos * (customerBurst - 1);
+        this.maxCustomers = maxCustomers;
+
+        int stripes = Math.min(Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1), globalBurst);
+        stripes = Integer.highestOneBit(Math.max(1, stripes));
+        long now = System.nanoTime();
+        this.globalStripes = new Bucket[stripes];
+        for (int i = 0; i < stripes; i++) {
+            globalStripes[i] = new Bucket(now);
+        }
+        this.stripeIntervalNanos = intervalNanos(globalPermitsPerSecond / stripes);
+        this.stripeToleranceNanos = new long[stripes];
+        for (int i = 0; i < stripes; i++) {
+            int stripeBurst = globalBurst / stripes + (i < globalBurst % stripes ? 1 : 0);
+            stripeToleranceNanos[i] = stripeIntervalNanos * (stripeBurst - 1);
+        }
+    }
+
+    /**
+     * Takes one permit from the global limit and one for the customer. The
+     * global limit is checked first so that rejected traffic never creates
+     * customer buckets, and the global permit is handed back if the customer
+     * is over its limit. A new customer that cannot get a bucket, because
+     * another thread is evicting one, is held to the global limit only.
+     * Allocates nothing for customers that already have a bucket.
+     *
+     * @param email The customer's email address
+     * @return true if the purchase may proceed, false if it is over a limit
+     */
+    public boolean tryAcquire(String email) {
+        long now = System.nanoTime();
+        int stripe = tryAcquireGlobal(now);
+        if (stripe < 0) {
+            return false;
+        }
+
+        Bucket customer = customers.get(email);
+        if (customer == null) {
+            customer = track(email, now);
+        }
+        if (customer != null && !customer.tryAcquire(now, customerIntervalNanos, customerToleranceNanos)) {
+            globalStripes[stripe].release(stripeIntervalNanos);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Creates a bucket for a new customer, reserving a slot first so that the
+     * number of buckets never exceeds the maximum. When all slots are taken,
+     * one bucket is evicted to make room.
+     *
+     * @param email The customer's email address
+     * @param now The current time in nanoseconds
+     * @return The customer's bucket, or null if no slot could be freed
+     */
+    private Bucket track(String email, long now) {
+        if (!reserveSlot(now)) {
+            return customers.get(email);
+        }
+        Bucket created = new Bucket(now);
+        Bucket existing = customers.putIfAbsent(email, created);
+        if (existing != null) {
+            trackedCustomers.decrementAndGet();
+            return existing;
+        }
+        return created;
+    }
+
+    /**
+     * Reserves a slot for a new bucket, evicting one if all are taken.
+     *
+     * @param now The current time in nanoseconds
+     * @return true if a slot was reserved
+     */
+    private boolean reserveSlot(long now) {
+        if (trackedCustomers.incrementAndGet() <= maxCustomers) {
+            return true;
+        }
+        trackedCustomers.decrementAndGet();
+        if (!evictOne(now)) {
+            return false;
+        }
+        if (trackedCustomers.incrementAndGet() <= maxCustomers) {
+            return true;
+        }
+        trackedCustomers.decrementAndGet();
+        return false;
+    }
+
+    /**
+     * Evicts one bucket in constant time: a few entries are sampled from a
+     * cursor that walks the map round-robin, idle ones are dropped, and if
+     * none was idle the sampled bucket that has been idle longest, i.e. the
+     * one closest to refilled, is dropped instead. Only one thread evicts at
+     * a time; others give up immediately.
+     *
+     * @param now The current time in nanoseconds
+     * @return true if at least one bucket was evicted
+     */
+    private boolean evictOne(long now) {
+        if (!evictionLock.tryLock()) {
+            return false;
+        }
+        try {
+            boolean evicted = false;
+            Map.Entry<String, Bucket> oldest = null;
+            for (int i = 0; i < EVICTION_SAMPLE; i++) {
+                if (evictionCursor == null || !evictionCursor.hasNext()) {
+                    evictionCursor = customers.entrySet().iterator();
+                    if (!evictionCursor.hasNext()) {
+                        break;
+                    }
+                }
+                Map.Entry<String, Bucket> entry = evictionCursor.next();
+                if (entry.getValue().isIdle(now)) {
+                    evicted |= remove(entry);
+                } else if (oldest == null || entry.getValue().arrival() < oldest.getValue().arrival()) {
+                    oldest = entry;
+                }
+            }
+            if (!evicted && oldest != null) {
+                evicted = remove(oldest);
+            }
+            return evicted;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Removes a customer bucket if it is still mapped.
+     *
+     * @param entry The entry to remove
+     * @return true if removed
+     */
+    private boolean remove(Map.Entry<String, Bucket> entry) {
+        if (customers.remove(entry.getKey(), entry.getValue())) {
+            trackedCustomers.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the number of customer buckets currently kept.
+     *
+     * @return The customer bucket count
+     */
+    public int getTrackedCustomers() {
+        return trackedCustomers.get();
+    }
+
+    /**
+     * Takes a global permit, starting at the calling thread's stripe and
+     * moving to the others only when it is exhausted.
+     *
+     * @param now The current time in nanoseconds
+     * @return The stripe the permit was taken from, or -1 if none was taken
+     */
+    private int tryAcquireGlobal(long now) {
+        int mask = globalStripes.length - 1;
+        int start = (int) Thread.currentThread().getId() & mask;
+        for (int i = 0; i <= mask; i++) {
+            int stripe = (start + i) & mask;
+            if (globalStripes[stripe].tryAcquire(now, stripeIntervalNanos, stripeToleranceNanos[stripe])) {
+                return stripe;
+            }
+        }
+        return -1;
+    }
+
+    private static long intervalNanos(double permitsPerSecond) {
+        return Math.max(1L, (long) (1_000_000_000L / permitsPerSecond));
+    }
+
+    /**
+     * A rate limit bucket holding its theoretical arrival time: the instant at
+     * which it would be completely refilled.
+     */
+    private static final class Bucket {
+
+        private final AtomicLong theoreticalArrival;
+
+        private Bucket(long now) {
+            this.theoreticalArrival = new AtomicLong(now);
+        }
+
+        private boolean tryAcquire(long now, long intervalNanos, long toleranceNanos) {
+            while (true) {
+                long arrival = theoreticalArrival.get();
+                if (arrival - now > toleranceNanos) {
+                    return false;
+                }
+                long next = Math.max(arrival, now) + intervalNanos;
+                if (theoreticalArrival.compareAndSet(arrival, next)) {
+                    return true;
+                }
+            }
+        }
+
+        private void release(long intervalNanos) {
+            theoreticalArrival.addAndGet(-intervalNanos);
+        }
+
+        private boolean isIdle(long now) {
+            return theoreticalArrival.get() - now <= 0;
+        }
+
+        private long arrival() {
+            return theoreticalArrival.get();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package model;
+
+public final class PurchaseRequest {
+
+    private final String isbn;
+    private final int quantity;
+    private final String email;
+    private final String address;
+
+    /**
+     * Constructs and validates a purchase request. Validation happens once
+     * here, so the request can be submitted repeatedly without re-checking.
+     *
+     * @param isbn The ISBN of the book to purchase
+     * @param quantity The quantity to purchase
+     * @param email The customer's email address
+     * @param address The customer's shipping address
+     * @throws IllegalArgumentException if the ISBN or email is null or empty,
+     * or the quantity is not positive
+     */
+    public PurchaseRequest(String isbn, int quantity, String email, String address) {
+        if (isbn == null || isbn.isBlank()) {
+            throw new IllegalArgumentException("ISBN cannot be null or empty");
+        }
+
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than 0");
+        }
+
+        if (email == null || email.isBlank()) {
+            throw new IllegalArgumentException("Email cannot be null or empty");
+        }
+
+        this.isbn = isbn;
+        this.quantity = quantity;
+        this.email = email;
+        this.address = address;
+    }
+
+    /**
+     * Gets the ISBN of the book to purchase.
+     *
+     * @return The ISBN string identifier
+     */
+    public String getISBN() {
+        return isbn;
+    }
+
+    /**
+     * Gets the quantity to purchase.
+     *
+     * @return The quantity
+     */
+    public int getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * Gets the customer's email address.
+     *
+     * @return The email address
+     */
+    public String getEmail() {
+        return email;
+    }
+
+    /**
+     * Gets the customer's shipping address.
+     *
+     * @return The shipping address
+     */
+    public String getAddress() {
+        return address;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PurchaseRequest{isbn='%s', quantity=%d, email='%s', address='%s'}",
+                isbn, quantity, email, address);
+    }
+}
@@ -0,0 +1,98 @@
+package model;
+
+import pricing.Money;
+
+public final class PurchaseResult {
+
+    private PurchaseStatus status;
+    private Book book;
+    private long amountCents;
+    private boolean replayed;
+
+    /**
+     * Records the outcome of a purchase. Results are meant to be reused across
+     * purchases, so recording overwrites the previous outcome.
+     *
+     * @param status The purchase status
+     * @param book The book involved, or null if it was not found
+     * @param amountCents The amount paid in cents, 0 on failure
+     * @return The recorded status
+     */
+    PurchaseStatus complete(PurchaseStatus status, Book book, long amountCents) {
+        this.status = status;
+        this.book = book;
+        this.amountCents = amountCents;
+        this.replayed = false;
+        return status;
+    }
+
+    /**
+     * Records the remembered outcome of an earlier purchase with the same
+     * idempotency key.
+     *
+     * @param status The original purchase status
+     * @param book The book involved in the original purchase
+     * @param amountCents The amount paid in the original purchase in cents
+     * @return The recorded status
+     */
+    PurchaseStatus replay(PurchaseStatus status, Book book, long amountCents) {
+        complete(status, book, amountCents);
+        this.replayed = true;
+        return status;
+    }
+
+    /**
+     * Gets the status of the last recorded purchase.
+     *
+     * @return The status, or null if nothing has been recorded yet
+     */
+    public PurchaseStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Checks whether the last recorded purchase succeeded.
+     *
+     * @return true if the purchase succeeded, false otherwise
+     */
+    public boolean isSuccessful() {
+        return status == PurchaseStatus.OK;
+    }
+
+    /**
+     * Checks whether the last recorded outcome was replayed from an earlier
+     * purchase with the same idempotency key instead of being executed.
+     *
+     * @return true if the outcome was replayed, false otherwise
+     */
+    public boolean isReplayed() {
+        return replayed;
+    }
+
+    /**
+     * Gets the book involved in the last recorded purchase.
+     *
+     * @return The book, or null if it was not found
+     */
+    public Book getBook() {
+        return book;
+    }
+
+    /**
+     * Gets the amount paid in the last recorded purchase.
+     *
+     * @return The amount in cents
+     */
+    public long getAmountCents() {
+        return amountCents;
+    }
+
+    /**
+     * Gets the amount paid in the last recorded purchase.
+     *
+     * @return The amount paid
+     */
+    public double getAmount() {
+        return Money.toAmount(amountCents);
+    }
+}
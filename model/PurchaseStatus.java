@@ -0,0 +1,64 @@
+package model;
+
+public enum PurchaseStatus {
+
+    /**
+     * The purchase succeeded.
+     */
+    OK("Purchase completed"),
+
+    /**
+     * No book with the requested ISBN is in the inventory.
+     */
+    NOT_FOUND("Book not found in inventory"),
+
+    /**
+     * The book is not available in the requested quantity.
+     */
+    OUT_OF_STOCK("Book is not available in the requested quantity"),
+
+    /**
+     * The book is a showcase book and cannot be purchased.
+     */
+    NOT_FOR_SALE("Showcase books are not available for purchase"),
+
+    /**
+     * The customer or the store is over its purchase rate limit.
+     */
+    RATE_LIMITED("Too many purchases, please retry later"),
+
+    /**
+     * The idempotency key was already used by the customer for a different
+     * purchase.
+     */
+    IDEMPOTENCY_CONFLICT("Idempotency key was already used for a different purchase");
+
+    private final String message;
+
+    PurchaseStatus(String message) {
+        this.message = message;
+    }
+
+    /**
+     * Gets the cached, human-readable description of this status.
+     *
+     * @return The status message
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Builds the exception the exception-based purchase API throws for this
+     * status. Only called on the failure path.
+     *
+     * @param subject The ISBN or title the failure refers to
+     * @return The exception describing this status
+     */
+    public RuntimeException toException(String subject) {
+        if (this == RATE_LIMITED) {
+            return new IllegalStateException("Quantum book store: " + message + ": " + subject);
+        }
+        return new IllegalArgumentException("Quantum book store: " + message + ": " + subject);
+    }
+}
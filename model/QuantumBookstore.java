@@ -1,18 +1,53 @@
 package model;
 
+import java.time.Year;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
-import service.MailService;
+import pricing.Money;
+import pricing.PricingEngine;
+import service.DeliveryGateway;
 
 public class QuantumBookstore {
 
     private final Map<String, Book> inventory;
+    private final boolean snapshotCatalog;
+    private final AtomicReference<CatalogSnapshot> catalog;
+    private final PriceIndex priceIndex = new PriceIndex();
+    private volatile PricingEngine pricingEngine;
+    private volatile DeliveryGateway deliveryGateway = DeliveryGateway.CONSOLE;
+    private volatile PurchaseDeduplicator deduplicator = new PurchaseDeduplicator();
+    private volatile PurchaseListener[] purchaseListeners = new PurchaseListener[0];
+    private volatile RecommendationEngine recommendationEngine;
+    private volatile PurchaseRateLimiter rateLimiter;
+    private final Object writeLock = new Object();
 
     /**
      * Constructs a new QuantumBookstore with an empty inventory.
      */
     public QuantumBookstore() {
-        this.inventory = new HashMap<>();
+        this(false);
+    }
+
+    /**
+     * Constructs a new QuantumBookstore with an empty inventory.
+     *
+     * When snapshot catalog mode is enabled, every inventory change publishes
+     * a new immutable {@link CatalogSnapshot} while the writer holds the
+     * write lock, copying only the snapshot shards it touches. Readers only
+     * read the published reference: {@link #getCatalogSnapshot()} returns it,
+     * and the listing and search methods select their results from it, so
+     * they see a consistent catalog without locking. Metadata changed through
+     * the book setters becomes visible to snapshot readers only after
+     * {@link #refreshCatalog()} is called.
+     *
+     * @param snapshotCatalog true to serve reads from published snapshots
+     */
+    public QuantumBookstore(boolean snapshotCatalog) {
+        this.inventory = new ConcurrentHashMap<>();
+        this.snapshotCatalog = snapshotCatalog;
+        this.catalog = new AtomicReference<>(CatalogSnapshot.EMPTY);
     }
 
     /**
@@ -25,12 +60,44 @@ public class QuantumBookstore {
         if (book == null) {
             throw new IllegalArgumentException("Book cannot be null");
         }
+        if (book.getISBN() == null) {
+            throw new IllegalArgumentException("Book ISBN cannot be null");
+        }
 
-        inventory.put(book.getISBN(), book);
+        synchronized (writeLock) {
+            putBook(book);
+            publishChanges(List.of(book), List.of());
+        }
         System.out.println(
                 "Quantum book store: Added book to inventory: " + book.getTitle() + " (ISBN: " + book.getISBN() + ")");
     }
 
+    /**
+     * Adds several books to the inventory at once. In snapshot catalog mode
+     * a single snapshot is published for the whole batch.
+     *
+     * @param books The books to add to the inventory
+     * @throws IllegalArgumentException if the collection or any book is null
+     */
+    public void addBooks(Collection<? extends Book> books) {
+        if (books == null) {
+            throw new IllegalArgumentException("Books cannot be null");
+        }
+        for (Book book : books) {
+            if (book == null || book.getISBN() == null) {
+                throw new IllegalArgumentException("Book and its ISBN cannot be null");
+            }
+        }
+
+        synchronized (writeLock) {
+            for (Book book : books) {
+                putBook(book);
+            }
+            publishChanges(books, List.of());
+        }
+        System.out.println("Quantum book store: Added " + books.size() + " books to inventory");
+    }
+
     /**
      * Removes and returns outdated books that are older than the specified
      * number of years.
@@ -43,21 +110,28 @@ public class QuantumBookstore {
             throw new IllegalArgumentException("Years threshold cannot be negative");
         }
 
-        int currentYear = Calendar.getInstance().get(Calendar.YEAR);
+        int currentYear = Year.now().getValue();
         int cutoffYear = currentYear - yearsThreshold;
 
         List<Book> outdatedBooks = new ArrayList<>();
-        Iterator<Map.Entry<String, Book>> iterator = inventory.entrySet().iterator();
+        synchronized (writeLock) {
+            Iterator<Map.Entry<String, Book>> iterator = inventory.entrySet().iterator();
+
+            while (iterator.hasNext()) {
+                Map.Entry<String, Book> entry = iterator.next();
+                Book book = entry.getValue();
 
-        while (iterator.hasNext()) {
-            Map.Entry<String, Book> entry = iterator.next();
-            Book book = entry.getValue();
+                if (book.getPublishYear() < cutoffYear) {
+                    outdatedBooks.add(book);
+                    iterator.remove();
+                    unindexBook(book);
+                    System.out.println("Quantum book store: Removed outdated book: " + book.getTitle()
+                            + " (Published: " + book.getPublishYear() + ")");
+                }
+            }
 
-            if (book.getPublishYear() < cutoffYear) {
-                outdatedBooks.add(book);
-                iterator.remove();
-                System.out.println("Quantum book store: Removed outdated book: " + book.getTitle() + " (Published: "
-                        + book.getPublishYear() + ")");
+            if (!outdatedBooks.isEmpty()) {
+                publishChanges(List.of(), isbnsOf(outdatedBooks));
             }
         }
 
@@ -74,9 +148,10 @@ public class QuantumBookstore {
      * @return The total amount paid for the purchase
      * @throws IllegalArgumentException if the book is not found or not
      * available
+     * @throws IllegalStateException if the purchase is over a rate limit
      */
     public double buyBook(String isbn, int quantity, String email, String address) {
-        if (isbn == null || isbn.trim().isEmpty()) {
+        if (isbn == null || isbn.isBlank()) {
             throw new IllegalArgumentException("ISBN cannot be null or empty");
         }
 
@@ -84,27 +159,286 @@ public class QuantumBookstore {
             throw new IllegalArgumentException("Quantity must be greater than 0");
         }
 
-        if (email == null || email.trim().isEmpty()) {
+        if (email == null || email.isBlank()) {
             throw new IllegalArgumentException("Email cannot be null or empty");
         }
 
-        Book book = inventory.get(isbn);
+        PurchaseResult result = new PurchaseResult();
+        purchase(isbn, quantity, email, address, result);
+        return result.getAmount();
+    }
+
+    /**
+     * Purchases a book at most once per idempotency key. Keys are scoped by
+     * the customer's email. A client that retries with the same key and the
+     * same ISBN and quantity within the deduplication window gets the amount
+     * of the original purchase back, without reducing stock or sending mail
+     * again; reusing the key for a different purchase is rejected.
+     *
+     * @param idempotencyKey The client-chosen key identifying this purchase
+     * @param isbn The ISBN of the book to purchase
+     * @param quantity The quantity to purchase
+     * @param email The customer's email address
+     * @param address The customer's shipping address
+     * @return The total amount paid for the original purchase
+     * @throws IllegalArgumentException if the key is null or empty, was
+     * already used for a different purchase, or the book is not found or not
+     * available
+     * @throws IllegalStateException if the purchase is over a rate limit
+     */
+    public double buyBook(String idempotencyKey, String isbn, int quantity, String email, String address) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            throw new IllegalArgumentException("Idempotency key cannot be null or empty");
+        }
+        PurchaseRequest request = new PurchaseRequest(isbn, quantity, email, address);
+
+        PurchaseResult result = new PurchaseResult();
+        PurchaseStatus status = deduplicator.execute(idempotencyKey, request, result,
+                r -> purchase(request.getISBN(), request.getQuantity(), request.getEmail(), request.getAddress(), r));
+        if (status == PurchaseStatus.IDEMPOTENCY_CONFLICT) {
+            throw status.toException(idempotencyKey);
+        }
+        if (result.isReplayed()) {
+            System.out.println("Quantum book store: Replayed purchase for idempotency key " + idempotencyKey);
+        }
+        return result.getAmount();
+    }
+
+    /**
+     * Purchases a book without throwing or logging for expected failures.
+     * The request is validated when it is constructed, the outcome is written
+     * to a caller-owned result, and failures are reported as status codes, so
+     * with an allocation-free delivery gateway (e.g.,
+     * {@link DeliveryGateway#NO_OP}) a successful purchase allocates nothing.
+     *
+     * @param request The pre-validated purchase request
+     * @param result The result to record the outcome in
+     * @return The purchase status, also recorded in the result
+     */
+    public PurchaseStatus tryBuy(PurchaseRequest request, PurchaseResult result) {
+        PurchaseRateLimiter limiter = rateLimiter;
+        if (limiter != null && !limiter.tryAcquire(request.getEmail())) {
+            return result.complete(PurchaseStatus.RATE_LIMITED, null, 0L);
+        }
+
+        Book book = inventory.get(request.getISBN());
         if (book == null) {
-            throw new IllegalArgumentException(
-                    "Quantum book store: Book with ISBN " + isbn + " not found in inventory");
+            return result.complete(PurchaseStatus.NOT_FOUND, null, 0L);
         }
 
-        if (!book.isAvailable(quantity)) {
-            throw new IllegalArgumentException(
-                    "Quantum book store: Book " + book.getTitle() + " is not available in the requested quantity");
+        int quantity = request.getQuantity();
+        long unitPriceCents = getUnitPriceCents(book, quantity);
+        DeliveryGateway gateway = deliveryGateway;
+        PurchaseStatus status = book.fulfil(quantity, request.getEmail(), request.getAddress(), gateway);
+        if (status != PurchaseStatus.OK) {
+            return result.complete(status, book, 0L);
         }
 
-        double totalAmount = book.purchase(quantity, email, address);
+        long totalCents = Money.multiply(unitPriceCents, quantity);
+        gateway.sendPurchaseConfirmation(request.getEmail(), book, totalCents);
+        notifyPurchase(book, quantity, totalCents, request.getEmail());
+        return result.complete(PurchaseStatus.OK, book, totalCents);
+    }
 
-        // Send purchase confirmation email
-        MailService.sendPurchaseConfirmation(email, book.getTitle(), totalAmount);
+    /**
+     * Purchases a book without throwing for expected failures, at most once
+     * per idempotency key. See {@link #buyBook(String, String, int, String, String)}
+     * for the deduplication rules and {@link #tryBuy(PurchaseRequest, PurchaseResult)}
+     * for the status codes.
+     *
+     * @param idempotencyKey The client-chosen key identifying this purchase
+     * @param request The pre-validated purchase request
+     * @param result The result to record the outcome in
+     * @return The purchase status, also recorded in the result
+     * @throws IllegalArgumentException if the key is null or empty
+     */
+    public PurchaseStatus tryBuy(String idempotencyKey, PurchaseRequest request, PurchaseResult result) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            throw new IllegalArgumentException("Idempotency key cannot be null or empty");
+        }
+        return deduplicator.execute(idempotencyKey, request, result, r -> tryBuy(request, r));
+    }
+
+    /**
+     * Installs a rate limiter applied to every purchase before it touches
+     * stock. Replayed idempotent purchases are not limited. Passing null
+     * removes the limit.
+     *
+     * @param limiter The rate limiter, or null for no limit
+     */
+    public void setRateLimiter(PurchaseRateLimiter limiter) {
+        this.rateLimiter = limiter;
+    }
+
+    /**
+     * Replaces the table that remembers idempotency keys, e.g. to change its
+     * window or capacity.
+     *
+     * @param deduplicator The purchase deduplicator
+     */
+    public void setPurchaseDeduplicator(PurchaseDeduplicator deduplicator) {
+        if (deduplicator == null) {
+            throw new IllegalArgumentException("Purchase deduplicator cannot be null");
+        }
+        this.deduplicator = deduplicator;
+    }
+
+    /**
+     * Registers a listener notified after every successful purchase, e.g. an
+     * {@link OrderHistory}.
+     *
+     * @param listener The listener to register
+     */
+    public void addPurchaseListener(PurchaseListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Purchase listener cannot be null");
+        }
+        synchronized (writeLock) {
+            PurchaseListener[] current = purchaseListeners;
+            PurchaseListener[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = listener;
+            purchaseListeners = updated;
+        }
+    }
+
+    /**
+     * Unregisters a previously registered purchase listener.
+     *
+     * @param listener The listener to unregister
+     */
+    public void removePurchaseListener(PurchaseListener listener) {
+        synchronized (writeLock) {
+            List<PurchaseListener> remaining = new ArrayList<>(Arrays.asList(purchaseListeners));
+            remaining.remove(listener);
+            purchaseListeners = remaining.toArray(new PurchaseListener[0]);
+        }
+    }
+
+    /**
+     * Installs a recommendation engine and feeds it every successful
+     * purchase. Passing null removes the current engine.
+     *
+     * @param engine The recommendation engine, or null to remove it
+     */
+    public void setRecommendationEngine(RecommendationEngine engine) {
+        synchronized (writeLock) {
+            RecommendationEngine previous = recommendationEngine;
+            if (previous != null) {
+                removePurchaseListener(previous);
+            }
+            if (engine != null) {
+                addPurchaseListener(engine);
+            }
+            recommendationEngine = engine;
+        }
+    }
+
+    /**
+     * Gets the books most often bought together with a book ("customers also
+     * bought"). Books no longer in the inventory are skipped.
+     *
+     * @param isbn The ISBN of the book
+     * @param count The maximum number of books to return
+     * @return The related books, most frequent first, or an empty list if no
+     * recommendation engine is installed
+     */
+    public List<Book> getAlsoBought(String isbn, int count) {
+        RecommendationEngine engine = recommendationEngine;
+        if (engine == null) {
+            return new ArrayList<>();
+        }
+
+        List<Book> books = new ArrayList<>();
+        for (String related : engine.recommend(isbn, count)) {
+            Book book = inventory.get(related);
+            if (book != null) {
+                books.add(book);
+            }
+        }
+        return books;
+    }
+
+    /**
+     * Sets the gateway through which purchased books and confirmations are
+     * delivered.
+     *
+     * @param gateway The delivery gateway
+     */
+    public void setDeliveryGateway(DeliveryGateway gateway) {
+        if (gateway == null) {
+            throw new IllegalArgumentException("Delivery gateway cannot be null");
+        }
+        this.deliveryGateway = gateway;
+    }
 
-        return totalAmount;
+    /**
+     * Installs a pricing engine that supplies the effective price of every
+     * purchase from its precompiled price table. Passing null reverts to list
+     * prices.
+     *
+     * @param engine The pricing engine, or null to use list prices
+     */
+    public void setPricingEngine(PricingEngine engine) {
+        synchronized (writeLock) {
+            PricingEngine previous = pricingEngine;
+            for (Book book : inventory.values()) {
+                if (previous != null) {
+                    book.removePriceChangeListener(previous);
+                }
+                if (engine != null) {
+                    book.addPriceChangeListener(engine);
+                }
+            }
+            if (engine != null) {
+                engine.bind(inventory.values());
+            }
+            pricingEngine = engine;
+        }
+    }
+
+    /**
+     * Gets the installed pricing engine.
+     *
+     * @return The pricing engine, or null if list prices are used
+     */
+    public PricingEngine getPricingEngine() {
+        return pricingEngine;
+    }
+
+    /**
+     * Gets the effective unit price of a book for a purchase quantity.
+     *
+     * @param isbn The ISBN of the book
+     * @param quantity The purchase quantity
+     * @return The effective unit price
+     * @throws IllegalArgumentException if the book is not found in inventory
+     */
+    public double getEffectivePrice(String isbn, int quantity) {
+        Book book = findBook(isbn);
+        if (book == null) {
+            throw new IllegalArgumentException(
+                    "Quantum book store: Book with ISBN " + isbn + " not found in inventory");
+        }
+        return Money.toAmount(getUnitPriceCents(book, quantity));
+    }
+
+    /**
+     * Designates a paper book as a hot title, such as a best seller at launch.
+     * Its warehouse stock moves to striped counters with one slice per
+     * processor, so concurrent purchases of the title rarely contend while the
+     * total is still never oversold. Designating a title twice has no effect.
+     *
+     * @param isbn The ISBN of the paper book
+     * @throws IllegalArgumentException if the book is not found in inventory
+     * or is not a paper book
+     */
+    public void designateHotTitle(String isbn) {
+        Book book = findBook(isbn);
+        if (!(book instanceof PaperBook)) {
+            throw new IllegalArgumentException(
+                    "Quantum book store: Paper book with ISBN " + isbn + " not found in inventory");
+        }
+        ((PaperBook) book).getWarehouseStock().stripe(Runtime.getRuntime().availableProcessors());
     }
 
     /**
@@ -114,20 +448,28 @@ public class QuantumBookstore {
      * @return The book if found, null otherwise
      */
     public Book findBook(String isbn) {
+        if (isbn == null) {
+            return null;
+        }
         return inventory.get(isbn);
     }
 
     /**
-     * Gets all books in the inventory.
+     * Gets all books in the inventory. In snapshot catalog mode the books are
+     * those of the published snapshot.
      *
      * @return A list of all books in the inventory
      */
     public List<Book> getAllBooks() {
+        if (snapshotCatalog) {
+            return toBooks(catalog.get().getAll());
+        }
         return new ArrayList<>(inventory.values());
     }
 
     /**
-     * Gets all books of a specific type.
+     * Gets all books of a specific type. In snapshot catalog mode the books
+     * are those of the published snapshot.
      *
      * @param bookType The class type of books to retrieve
      * @param <T> The type parameter extending Book
@@ -135,6 +477,9 @@ public class QuantumBookstore {
      */
     @SuppressWarnings("unchecked")
     public <T extends Book> List<T> getBooksByType(Class<T> bookType) {
+        if (snapshotCatalog) {
+            return (List<T>) toBooks(catalog.get().getByType(bookType));
+        }
         return inventory.values().stream()
                 .filter(bookType::isInstance)
                 .map(book -> (T) book)
@@ -147,11 +492,15 @@ public class QuantumBookstore {
      * @return The total count of books
      */
     public int getInventorySize() {
+        if (snapshotCatalog) {
+            return catalog.get().size();
+        }
         return inventory.size();
     }
 
     /**
-     * Searches for books by title (case-insensitive).
+     * Searches for books by title (case-insensitive). In snapshot catalog
+     * mode titles are matched against the published snapshot.
      *
      * @param title The title to search for
      * @return A list of books matching the title
@@ -160,6 +509,9 @@ public class QuantumBookstore {
         if (title == null || title.trim().isEmpty()) {
             return new ArrayList<>();
         }
+        if (snapshotCatalog) {
+            return toBooks(catalog.get().searchByTitle(title));
+        }
 
         return inventory.values().stream()
                 .filter(book -> book.getTitle().toLowerCase().contains(title.toLowerCase()))
@@ -167,7 +519,8 @@ public class QuantumBookstore {
     }
 
     /**
-     * Searches for books by author name (case-insensitive).
+     * Searches for books by author name (case-insensitive). In snapshot
+     * catalog mode author names are matched against the published snapshot.
      *
      * @param authorName The author name to search for
      * @return A list of books by the specified author
@@ -176,6 +529,9 @@ public class QuantumBookstore {
         if (authorName == null || authorName.trim().isEmpty()) {
             return new ArrayList<>();
         }
+        if (snapshotCatalog) {
+            return toBooks(catalog.get().searchByAuthor(authorName));
+        }
 
         return inventory.values().stream()
                 .filter(book -> book.getAuthorName().toLowerCase().contains(authorName.toLowerCase()))
@@ -198,4 +554,451 @@ public class QuantumBookstore {
             System.out.println("Quantum book store: " + book.toString());
         }
     }
+
+    /**
+     * Finds books whose price lies within the given range, using the price
+     * index instead of scanning the inventory.
+     *
+     * @param minPrice The lowest price to include
+     * @param maxPrice The highest price to include
+     * @return A list of books in ascending price order
+     * @throws IllegalArgumentException if minPrice is greater than maxPrice
+     */
+    public List<Book> findByPriceRange(double minPrice, double maxPrice) {
+        if (minPrice > maxPrice) {
+            throw new IllegalArgumentException("Minimum price cannot be greater than maximum price");
+        }
+        return priceIndex.findByPriceRange(minPrice, maxPrice);
+    }
+
+    /**
+     * Gets the cheapest books in the inventory.
+     *
+     * @param count The maximum number of books to return
+     * @return A list of at most {@code count} books in ascending price order
+     * @throws IllegalArgumentException if count is negative
+     */
+    public List<Book> getCheapestBooks(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count cannot be negative");
+        }
+        return priceIndex.cheapest(count);
+    }
+
+    /**
+     * Gets the most expensive books in the inventory.
+     *
+     * @param count The maximum number of books to return
+     * @return A list of at most {@code count} books in descending price order
+     * @throws IllegalArgumentException if count is negative
+     */
+    public List<Book> getMostExpensiveBooks(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count cannot be negative");
+        }
+        return priceIndex.mostExpensive(count);
+    }
+
+    /**
+     * Gets one page of the inventory sorted by ascending price.
+     *
+     * @param page The zero-based page number
+     * @param pageSize The number of books per page
+     * @return The books on the requested page
+     * @throws IllegalArgumentException if page is negative or pageSize is not
+     * positive
+     */
+    public List<Book> getBooksSortedByPrice(int page, int pageSize) {
+        if (page < 0 || pageSize <= 0) {
+            throw new IllegalArgumentException("Page cannot be negative and page size must be greater than 0");
+        }
+        return priceIndex.page(page, pageSize);
+    }
+
+    /**
+     * Gets the books that follow a cursor in ascending price order, for cheap
+     * deep paging. Pass the price and ISBN of the last book of the previous
+     * page; start with {@code Double.NEGATIVE_INFINITY} and a null ISBN.
+     *
+     * @param afterPrice The price of the last book already seen
+     * @param afterIsbn The ISBN of the last book already seen, or null to
+     * start before every book at that price
+     * @param limit The maximum number of books to return
+     * @return The next books, cheapest first
+     * @throws IllegalArgumentException if limit is not positive or the price
+     * is NaN
+     */
+    public List<Book> getBooksSortedByPriceAfter(double afterPrice, String afterIsbn, int limit) {
+        if (limit <= 0 || Double.isNaN(afterPrice)) {
+            throw new IllegalArgumentException("Limit must be greater than 0 and price must be a number");
+        }
+        return priceIndex.after(afterPrice, afterIsbn, limit);
+    }
+
+    /**
+     * Gets a consistent, immutable snapshot of the catalog metadata. Its
+     * listings and searches return {@link BookSnapshot} views whose values
+     * were copied when the snapshot was published. In snapshot catalog mode
+     * this is the currently published snapshot, returned with a single
+     * volatile read; otherwise a snapshot is built on demand.
+     *
+     * @return The catalog snapshot
+     */
+    public CatalogSnapshot getCatalogSnapshot() {
+        if (snapshotCatalog) {
+            return catalog.get();
+        }
+        synchronized (writeLock) {
+            return new CatalogSnapshot(catalog.get().getVersion(), inventory.values());
+        }
+    }
+
+    /**
+     * Republishes the catalog snapshot from the live books. Call this after
+     * changing book metadata through the setters (e.g.,
+     * {@link Book#setPrice(double)}) so that snapshot readers see the change.
+     */
+    public void refreshCatalog() {
+        synchronized (writeLock) {
+            publishCatalog();
+        }
+    }
+
+    /**
+     * Purchases a validated request, logging through the book and throwing
+     * for every failure.
+     *
+     * @param isbn The ISBN of the book to purchase
+     * @param quantity The quantity to purchase
+     * @param email The customer's email address
+     * @param address The customer's shipping address
+     * @param result The result to record the outcome in
+     * @return Always returns {@link PurchaseStatus#OK}
+     * @throws IllegalArgumentException if the book is not found or not
+     * available
+     * @throws IllegalStateException if the purchase is over a rate limit
+     */
+    private PurchaseStatus purchase(String isbn, int quantity, String email, String address,
+            PurchaseResult result) {
+        PurchaseRateLimiter limiter = rateLimiter;
+        if (limiter != null && !limiter.tryAcquire(email)) {
+            throw PurchaseStatus.RATE_LIMITED.toException(email);
+        }
+
+        Book book = inventory.get(isbn);
+        if (book == null) {
+            throw new IllegalArgumentException(
+                    "Quantum book store: Book with ISBN " + isbn + " not found in inventory");
+        }
+
+        if (!book.isAvailable(quantity)) {
+            throw new IllegalArgumentException(
+                    "Quantum book store: Book " + book.getTitle() + " is not available in the requested quantity");
+        }
+
+        DeliveryGateway gateway = deliveryGateway;
+        long unitPriceCents = getUnitPriceCents(book, quantity);
+        book.purchase(quantity, unitPriceCents, email, address, gateway);
+        long totalCents = Money.multiply(unitPriceCents, quantity);
+
+        // Send purchase confirmation email
+        gateway.sendPurchaseConfirmation(email, book, totalCents);
+        notifyPurchase(book, quantity, totalCents, email);
+
+        return result.complete(PurchaseStatus.OK, book, totalCents);
+    }
+
+    /**
+     * Notifies the purchase listeners of a successful purchase. Iterates an
+     * array snapshot so the hot path does not allocate an iterator. The
+     * purchase has already been committed, so a failing listener is logged
+     * and skipped rather than allowed to report the purchase as failed.
+     *
+     * @param book The purchased book
+     * @param quantity The purchased quantity
+     * @param amountCents The amount paid in cents
+     * @param email The customer's email address
+     */
+    private void notifyPurchase(Book book, int quantity, long amountCents, String email) {
+        PurchaseListener[] listeners = purchaseListeners;
+        for (int i = 0; i < listeners.length; i++) {
+            try {
+                listeners[i].onPurchase(book, quantity, amountCents, email);
+            } catch (RuntimeException e) {
+                System.out.println("Quantum book store: Purchase listener failed for " + book.getTitle() + ": " + e);
+            }
+        }
+    }
+
+    /**
+     * Gets a weakly consistent iterator over the live inventory. It never
+     * throws on concurrent changes and is used to walk the inventory
+     * incrementally.
+     *
+     * @return An iterator over the books in the inventory
+     */
+    Iterator<Book> inventoryIterator() {
+        return Collections.unmodifiableCollection(inventory.values()).iterator();
+    }
+
+    /**
+     * Removes books from the inventory and its secondary indexes, publishing
+     * one catalog snapshot for the whole batch. A book is only removed if it
+     * is still the one stored under its ISBN.
+     *
+     * @param books The books to remove
+     * @return The books that were actually removed
+     */
+    List<Book> removeBooks(Collection<Book> books) {
+        List<Book> removed = new ArrayList<>(books.size());
+        synchronized (writeLock) {
+            for (Book book : books) {
+                if (inventory.remove(book.getISBN(), book)) {
+                    unindexBook(book);
+                    removed.add(book);
+                }
+            }
+            if (!removed.isEmpty()) {
+                publishChanges(List.of(), isbnsOf(removed));
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Puts removed books back into the inventory and its secondary indexes,
+     * publishing one catalog snapshot for the whole batch. A book is skipped
+     * if its ISBN has been taken by another book in the meantime.
+     *
+     * @param books The books to restore
+     */
+    void restoreBooks(Collection<Book> books) {
+        synchronized (writeLock) {
+            List<Book> restored = new ArrayList<>(books.size());
+            for (Book book : books) {
+                if (!inventory.containsKey(book.getISBN())) {
+                    putBook(book);
+                    restored.add(book);
+                }
+            }
+            if (!restored.isEmpty()) {
+                publishChanges(restored, List.of());
+            }
+        }
+    }
+
+    /**
+     * Moves a book whose ISBN was changed through {@link Book#setISBN(String)}
+     * from its old inventory key to its new ISBN, reindexing it. Must be
+     * called while holding the write lock; publishes the move in the catalog
+     * snapshot.
+     *
+     * @param key The inventory key the book is stored under
+     * @param book The book to move
+     * @return true if moved, false if the book is no longer stored under the
+     * key or its new ISBN is null or taken
+     */
+    boolean rekeyBook(String key, Book book) {
+        String isbn = book.getISBN();
+        if (isbn == null || inventory.get(key) != book || inventory.containsKey(isbn)) {
+            return false;
+        }
+        inventory.remove(key);
+        priceIndex.removeIsbn(key);
+        PricingEngine engine = pricingEngine;
+        if (engine != null) {
+            engine.remove(key);
+        }
+        putBook(book);
+        publishChanges(List.of(book), List.of(key));
+        return true;
+    }
+
+    /**
+     * Gets the live set of inventory keys.
+     *
+     * @return An unmodifiable view of the ISBNs books are stored under
+     */
+    Set<String> getInventoryIsbns() {
+        return Collections.unmodifiableSet(inventory.keySet());
+    }
+
+    /**
+     * Gets the price index kept next to the inventory.
+     *
+     * @return The price index
+     */
+    PriceIndex getPriceIndex() {
+        return priceIndex;
+    }
+
+    /**
+     * Gets the currently published catalog snapshot without building or
+     * publishing one.
+     *
+     * @return The published snapshot, which is empty unless the store is in
+     * snapshot catalog mode
+     */
+    CatalogSnapshot getPublishedCatalog() {
+        return catalog.get();
+    }
+
+    /**
+     * Checks whether the store publishes catalog snapshots.
+     *
+     * @return true in snapshot catalog mode
+     */
+    boolean isSnapshotCatalog() {
+        return snapshotCatalog;
+    }
+
+    /**
+     * Gets the lock that serializes inventory writers.
+     *
+     * @return The write lock
+     */
+    Object getWriteLock() {
+        return writeLock;
+    }
+
+    /**
+     * Gets the registered purchase listeners, including the recommendation
+     * engine.
+     *
+     * @return The current listener array, which must not be modified
+     */
+    PurchaseListener[] getPurchaseListeners() {
+        return purchaseListeners;
+    }
+
+    /**
+     * Gets the installed recommendation engine.
+     *
+     * @return The recommendation engine, or null if none is installed
+     */
+    RecommendationEngine getRecommendationEngine() {
+        return recommendationEngine;
+    }
+
+    /**
+     * Gets the installed rate limiter.
+     *
+     * @return The rate limiter, or null if purchases are not limited
+     */
+    PurchaseRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Gets the table that remembers idempotency keys.
+     *
+     * @return The purchase deduplicator
+     */
+    PurchaseDeduplicator getPurchaseDeduplicator() {
+        return deduplicator;
+    }
+
+    /**
+     * Puts a book into the inventory and its secondary indexes, unindexing
+     * any book it replaces. Must be called while holding the write lock.
+     *
+     * @param book The book to put
+     */
+    private void putBook(Book book) {
+        Book replaced = inventory.put(book.getISBN(), book);
+        if (replaced != null && replaced != book) {
+            unindexBook(replaced);
+        }
+        book.addPriceChangeListener(priceIndex);
+        priceIndex.add(book);
+
+        PricingEngine engine = pricingEngine;
+        if (engine != null) {
+            book.addPriceChangeListener(engine);
+            engine.refresh(book);
+        }
+    }
+
+    /**
+     * Removes a book that has left the inventory from the secondary indexes.
+     *
+     * @param book The book to unindex
+     */
+    private void unindexBook(Book book) {
+        book.removePriceChangeListener(priceIndex);
+        priceIndex.remove(book);
+
+        PricingEngine engine = pricingEngine;
+        if (engine != null) {
+            book.removePriceChangeListener(engine);
+            engine.remove(book);
+        }
+    }
+
+    /**
+     * Gets the effective unit price of a book, from the pricing engine when
+     * one is installed and from the list price otherwise.
+     *
+     * @param book The book being purchased
+     * @param quantity The purchase quantity
+     * @return The unit price in cents
+     */
+    private long getUnitPriceCents(Book book, int quantity) {
+        PricingEngine engine = pricingEngine;
+        if (engine != null) {
+            return engine.getUnitPriceCents(book, quantity);
+        }
+        return Money.toCents(book.getPrice());
+    }
+
+    /**
+     * Publishes the next catalog snapshot with the given changes. Must be
+     * called while holding the write lock.
+     *
+     * @param added The books added or replaced
+     * @param removed The ISBNs of the books removed
+     */
+    private void publishChanges(Collection<? extends Book> added, Collection<String> removed) {
+        if (snapshotCatalog) {
+            catalog.set(catalog.get().withChanges(added, removed));
+        }
+    }
+
+    /**
+     * Gets the ISBNs of books.
+     *
+     * @param books The books
+     * @return Their ISBNs
+     */
+    private static List<String> isbnsOf(Collection<Book> books) {
+        List<String> isbns = new ArrayList<>(books.size());
+        for (Book book : books) {
+            isbns.add(book.getISBN());
+        }
+        return isbns;
+    }
+
+    /**
+     * Resolves snapshot entries to the books they were taken from.
+     *
+     * @param entries The snapshot entries
+     * @return The live books, in the same order
+     */
+    private static List<Book> toBooks(Collection<BookSnapshot> entries) {
+        List<Book> books = new ArrayList<>(entries.size());
+        for (BookSnapshot entry : entries) {
+            books.add(entry.getBook());
+        }
+        return books;
+    }
+
+    /**
+     * Publishes a new catalog snapshot built from the current inventory. Must
+     * be called while holding the write lock.
+     */
+    private void publishCatalog() {
+        if (snapshotCatalog) {
+            catalog.set(new CatalogSnapshot(catalog.get().getVersion() + 1, inventory.values()));
+        }
+    }
 }
@@ -0,0 +1,295 @@
+package model;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+public class RecommendationEngine implements PurchaseListener {
+
+    private final int topN;
+    private final int countersPerIsbn;
+    private final int basketSize;
+    private final int maxCustomers;
+    private final Map<String, Neighbors> neighbors = new ConcurrentHashMap<>();
+    private final Baskets[] recentBaskets;
+    private final Function<String, Neighbors> newNeighbors;
+
+    /**
+     * Constructs an engine that keeps the top 10 neighbors per ISBN, relates
+     * each purchase to the customer's last 5 distinct purchases and remembers
+     * up to 100,000 customers.
+     */
+    public RecommendationEngine() {
+        this(10, 4, 5, 100_000);
+    }
+
+    /**
+     * Constructs a recommendation engine.
+     *
+     * @param topN The number of neighbors kept ready per ISBN
+     * @param counterFactor How many candidate counters to track per kept
+     * neighbor; more counters give more accurate rankings
+     * @param basketSize The number of recent distinct ISBNs per customer that
+     * count as bought together
+     * @param maxCustomers The number of customers whose recent purchases are
+     * remembered; customers are spread over independently locked stripes and
+     * the least recently active of a full stripe are forgotten first
+     * @throws IllegalArgumentException if any argument is not positive
+     */
+    public RecommendationEngine(int topN, int counterFactor, int basketSize, int maxCustomers) {
+        if (topN <= 0 || counterFactor <= 0 || basketSize <= 0 || maxCustomers <= 0) {
+            throw new IllegalArgumentException("Recommendation engine settings must be greater than 0");
+        }
+        this.topN = topN;
+        this.countersPerIsbn = topN * counterFactor;
+        this.basketSize = basketSize;
+        this.maxCustomers = maxCustomers;
+        this.newNeighbors = isbn -> new Neighbors(countersPerIsbn, topN);
+
+        int stripes = Integer.highestOneBit(Math.min(maxCustomers, Runtime.getRuntime().availableProcessors() * 4));
+        this.recentBaskets = new Baskets[stripes];
+        for (int i = 0; i < stripes; i++) {
+            recentBaskets[i] = new Baskets((maxCustomers + stripes - 1) / stripes);
+        }
+    }
+
+    /**
+     * Counts the purchased book as bought together with the customer's recent
+     * purchases.
+     *
+     * @param book The purchased book
+     * @param quantity The purchased quantity
+     * @param amountCents The amount paid in cents
+     * @param email The customer's email address
+     */
+    @Override
+    public void onPurchase(Book book, int quantity, long amountCents, String email) {
+        recordPurchase(email, book.getISBN());
+    }
+
+    /**
+     * Counts a purchase as bought together with the customer's recent
+     * purchases.
+     *
+     * @param email The customer's email address
+     * @param isbn The ISBN of the purchased book
+     */
+    public void recordPurchase(String email, String isbn) {
+        String[] related = updateBasket(email, isbn);
+        if (related.length == 0) {
+            return;
+        }
+
+        Neighbors purchased = neighbors.computeIfAbsent(isbn, newNeighbors);
+        for (String other : related) {
+            purchased.increment(other);
+            neighbors.computeIfAbsent(other, newNeighbors).increment(isbn);
+        }
+    }
+
+    /**
+     * Gets the ISBNs most often bought together with a book.
+     *
+     * @param isbn The ISBN of the book
+     * @param count The maximum number of ISBNs to return
+     * @return The related ISBNs, most frequent first
+     */
+    public List<String> recommend(String isbn, int count) {
+        Neighbors entry = isbn == null ? null : neighbors.get(isbn);
+        if (entry == null || count <= 0) {
+            return new ArrayList<>();
+        }
+
+        String[] top = entry.top;
+        int size = Math.min(count, top.length);
+        List<String> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(top[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the number of neighbors kept ready per ISBN.
+     *
+     * @return The top-N size
+     */
+    public int getTopN() {
+        return topN;
+    }
+
+    /**
+     * Creates an empty engine with the same settings.
+     *
+     * @return The empty copy
+     */
+    RecommendationEngine emptyCopy() {
+        return new RecommendationEngine(topN, countersPerIsbn / topN, basketSize, maxCustomers);
+    }
+
+    /**
+     * Adds an ISBN to a customer's recent basket.
+     *
+     * @param email The customer's email address
+     * @param isbn The purchased ISBN
+     * @return The other ISBNs in the basket before this purchase, or an empty
+     * array if the ISBN was already in it
+     */
+    private String[] updateBasket(String email, String isbn) {
+        int hash = email.hashCode();
+        Baskets stripe = recentBaskets[(hash ^ (hash >>> 16)) & (recentBaskets.length - 1)];
+        synchronized (stripe) {
+            String[] basket = stripe.get(email);
+            if (basket == null) {
+                basket = new String[0];
+            }
+            for (String recent : basket) {
+                if (recent.equals(isbn)) {
+                    return new String[0];
+                }
+            }
+
+            int kept = Math.min(basket.length, basketSize - 1);
+            String[] updated = new String[kept + 1];
+            System.arraycopy(basket, basket.length - kept, updated, 0, kept);
+            updated[kept] = isbn;
+            stripe.put(email, updated);
+            return basket;
+        }
+    }
+
+    /**
+     * One stripe of recent baskets, kept in access order and bounded by
+     * forgetting its least recently active customer.
+     */
+    private static final class Baskets extends LinkedHashMap<String, String[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        private Baskets(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String[]> eldest) {
+            return size() > capacity;
+        }
+    }
+
+    /**
+     * The co-purchase counters of one ISBN, bounded with the Space-Saving
+     * algorithm: when all counters are taken, the least frequent neighbor is
+     * replaced and its count inherited, so frequent neighbors are never lost
+     * while memory stays fixed per ISBN. The top neighbors are kept ranked
+     * incrementally, since counts only grow.
+     */
+    private static final class Neighbors {
+
+        private final String[] items;
+        private final long[] counts;
+        private final int[] ranking;
+        private final int[] rankOf;
+        private int size;
+        private int ranked;
+        private volatile String[] top = new String[0];
+
+        private Neighbors(int capacity, int topN) {
+            this.items = new String[capacity];
+            this.counts = new long[capacity];
+            this.ranking = new int[topN];
+            this.rankOf = new int[capacity];
+            Arrays.fill(rankOf, -1);
+        }
+
+        private synchronized void increment(String isbn) {
+            int slot = -1;
+            int minimum = 0;
+            for (int i = 0; i < size; i++) {
+                if (items[i].equals(isbn)) {
+                    slot = i;
+                    break;
+                }
+                if (counts[i] < counts[minimum]) {
+                    minimum = i;
+                }
+            }
+
+            boolean replaced = false;
+            if (slot >= 0) {
+                counts[slot]++;
+            } else if (size < items.length) {
+                slot = size++;
+                items[slot] = isbn;
+                counts[slot] = 1;
+            } else {
+                slot = minimum;
+                items[slot] = isbn;
+                counts[slot]++;
+                replaced = true;
+            }
+
+            if (promote(slot) || (replaced && rankOf[slot] >= 0)) {
+                publishTop();
+            }
+        }
+
+        /**
+         * Moves a counter whose count has just grown into its place among the
+         * top neighbors. A counter outside the top only enters it by beating
+         * the current minimum, so nothing is sorted.
+         *
+         * @param slot The counter that was incremented
+         * @return true if the ranking changed
+         */
+        private boolean promote(int slot) {
+            int position = rankOf[slot];
+            if (position < 0) {
+                if (ranked < ranking.length) {
+                    position = ranked++;
+                } else if (counts[slot] > counts[ranking[ranked - 1]]) {
+                    position = ranked - 1;
+                    rankOf[ranking[position]] = -1;
+                } else {
+                    return false;
+                }
+                ranking[position] = slot;
+                rankOf[slot] = position;
+                bubbleUp(position);
+                return true;
+            }
+            return bubbleUp(position) != position;
+        }
+
+        /**
+         * Swaps a ranked counter ahead of those with a lower count.
+         *
+         * @param position The counter's position in the ranking
+         * @return The counter's new position
+         */
+        private int bubbleUp(int position) {
+            int slot = ranking[position];
+            while (position > 0 && counts[ranking[position - 1]] < counts[slot]) {
+                ranking[position] = ranking[position - 1];
+                rankOf[ranking[position]] = position;
+                position--;
+            }
+            ranking[position] = slot;
+            rankOf[slot] = position;
+            return position;
+        }
+
+        /**
+         * Publishes the ranked neighbors so lookups only copy them.
+         */
+        private void publishTop() {
+            String[] ordered = new String[ranked];
+            for (int i = 0; i < ordered.length; i++) {
+                ordered[i] = items[ranking[i]];
+            }
+            top = ordered;
+        }
+    }
+}
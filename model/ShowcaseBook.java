@@ -1,5 +1,7 @@
 package model;
 
+import service.DeliveryGateway;
+
 public class ShowcaseBook extends Book {
 
     /**
@@ -30,18 +32,35 @@ public class ShowcaseBook extends Book {
      * Attempts to purchase a showcase book will always throw an exception.
      *
      * @param quantity The quantity to purchase
+     * @param unitPriceCents The effective unit price in cents
      * @param email The customer's email address
      * @param address The customer's shipping address
+     * @param gateway The gateway that would deliver the book
      * @return Never returns as it always throws an exception
      * @throws UnsupportedOperationException Always thrown as showcase books
      * cannot be purchased
      */
     @Override
-    public double purchase(int quantity, String email, String address) {
+    public double purchase(int quantity, long unitPriceCents, String email, String address,
+            DeliveryGateway gateway) {
         throw new UnsupportedOperationException(
                 "Quantum book store: Showcase books are not available for purchase: " + getTitle());
     }
 
+    /**
+     * Showcase books are never delivered.
+     *
+     * @param quantity The quantity to purchase
+     * @param email The customer's email address
+     * @param address The customer's shipping address
+     * @param gateway The gateway that would deliver the book
+     * @return Always returns {@link PurchaseStatus#NOT_FOR_SALE}
+     */
+    @Override
+    public PurchaseStatus fulfil(int quantity, String email, String address, DeliveryGateway gateway) {
+        return PurchaseStatus.NOT_FOR_SALE;
+    }
+
     @Override
     public String toString() {
         return String.format("ShowcaseBook{isbn='%s', title='%s', publishYear=%d, price=%.2f, authorName='%s'}",
@@ -0,0 +1,53 @@
+package model;
+
+public interface StockCounter {
+
+    /**
+     * Returned by {@link #take(int, boolean)} when the counter has been
+     * retired and the caller should retry on its replacement.
+     */
+    int RETIRED = -1;
+
+    /**
+     * Gets the current stock. Under concurrent purchases this is a
+     * moment-in-time estimate.
+     *
+     * @return The stock quantity, or 0 if the counter has been retired
+     */
+    int get();
+
+    /**
+     * Takes stock without ever letting the count go negative.
+     *
+     * @param quantity The quantity to take
+     * @param partial Whether to take whatever is available up to the quantity
+     * instead of all or nothing
+     * @return The quantity taken, or {@link #RETIRED} if the counter has been
+     * retired
+     */
+    int take(int quantity, boolean partial);
+
+    /**
+     * Returns stock to the counter.
+     *
+     * @param quantity The quantity to add
+     * @return true if added, false if the counter has been retired
+     */
+    boolean add(int quantity);
+
+    /**
+     * Overwrites the stock.
+     *
+     * @param stock The new stock quantity
+     * @return true if set, false if the counter has been retired
+     */
+    boolean set(int stock);
+
+    /**
+     * Retires the counter so that its stock can move to a replacement. Every
+     * later update fails.
+     *
+     * @return The stock held at retirement
+     */
+    int retire();
+}
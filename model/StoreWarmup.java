@@ -0,0 +1,387 @@
+package model;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import pricing.PricingEngine;
+import service.DeliveryGateway;
+import service.EBookContentStore;
+
+public class StoreWarmup {
+
+    private static final int DEFAULT_BATCH_SIZE = 2_000;
+    private static final double DEFAULT_TOLERANCE = 0.10;
+    private static final int DEFAULT_STABLE_BATCHES = 3;
+    private static final Duration DEFAULT_MAX_DURATION = Duration.ofSeconds(30);
+    private static final int SHADOW_STOCK = 100_000_000;
+    private static final String SHADOW_EMAIL = "warmup@shadow.invalid";
+    private static final String SHADOW_ADDRESS = "Warm-up shadow address";
+    private static final String SHADOW_KEY_PREFIX = "warmup-";
+    private static final int PRIME_PAGE_SIZE = 20;
+    private static final double SHADOW_PERMITS_PER_SECOND = 1_000_000_000.0;
+    private static final PurchaseListener NO_OP_LISTENER = (book, quantity, amountCents, email) -> {
+    };
+
+    private final QuantumBookstore bookstore;
+    private final int batchSize;
+    private final double tolerance;
+    private final int stableBatches;
+    private final long maxDurationNanos;
+    private volatile List<PurchaseRequest> trafficProfile = List.of();
+    private volatile EBookContentStore contentStore;
+
+    /**
+     * Constructs a warm-up that replays batches of 2,000 operations until
+     * three consecutive batch latencies are within 10% of each other, for at
+     * most 30 seconds.
+     *
+     * @param bookstore The live bookstore to warm up
+     */
+    public StoreWarmup(QuantumBookstore bookstore) {
+        this(bookstore, DEFAULT_BATCH_SIZE, DEFAULT_TOLERANCE, DEFAULT_STABLE_BATCHES, DEFAULT_MAX_DURATION);
+    }
+
+    /**
+     * Constructs a configured warm-up.
+     *
+     * @param bookstore The live bookstore to warm up
+     * @param batchSize The number of operations per measured batch
+     * @param tolerance The relative change in mean batch latency that still
+     * counts as stable (e.g., 0.1 for 10%)
+     * @param stableBatches The number of consecutive stable batches required
+     * before the store is ready
+     * @param maxDuration The time after which the warm-up gives up
+     * @throws IllegalArgumentException if the bookstore or duration is null or
+     * a limit is not positive
+     */
+    public StoreWarmup(QuantumBookstore bookstore, int batchSize, double tolerance, int stableBatches,
+            Duration maxDuration) {
+        if (bookstore == null || maxDuration == null) {
+            throw new IllegalArgumentException("Bookstore and maximum duration cannot be null");
+        }
+        if (batchSize <= 0 || tolerance <= 0 || stableBatches <= 0 || maxDuration.isNegative()
+                || maxDuration.isZero()) {
+            throw new IllegalArgumentException("Batch size, tolerance, stable batches and duration must be positive");
+        }
+        this.bookstore = bookstore;
+        this.batchSize = batchSize;
+        this.tolerance = tolerance;
+        this.stableBatches = stableBatches;
+        this.maxDurationNanos = maxDuration.toNanos();
+    }
+
+    /**
+     * Sets a recorded traffic profile to replay. Without one, a synthetic
+     * profile buying one copy of every book is used.
+     *
+     * @param requests The recorded purchase requests
+     * @throws IllegalArgumentException if the list or any request is null
+     */
+    public void setTrafficProfile(List<PurchaseRequest> requests) {
+        if (requests == null || requests.contains(null)) {
+            throw new IllegalArgumentException("Traffic profile cannot be null or contain null requests");
+        }
+        this.trafficProfile = List.copyOf(requests);
+    }
+
+    /**
+     * Sets the eBook content store whose cache is pre-populated with every
+     * eBook in the inventory.
+     *
+     * @param contentStore The content store, or null to skip preloading
+     */
+    public void setContentStore(EBookContentStore contentStore) {
+        this.contentStore = contentStore;
+    }
+
+    /**
+     * Turns recorded orders, e.g. from {@link OrderHistory#getOrders(String)},
+     * into a traffic profile.
+     *
+     * @param orders The recorded orders
+     * @return The purchase requests replaying the orders
+     */
+    public static List<PurchaseRequest> toTrafficProfile(Collection<OrderRecord> orders) {
+        List<PurchaseRequest> requests = new ArrayList<>(orders.size());
+        for (OrderRecord order : orders) {
+            requests.add(new PurchaseRequest(order.getISBN(), order.getQuantity(), SHADOW_EMAIL, SHADOW_ADDRESS));
+        }
+        return requests;
+    }
+
+    /**
+     * Primes the live store's catalog snapshot, price index, pricing table
+     * and eBook cache, then replays the traffic profile together with
+     * searches and price browsing against a shadow store until batch
+     * latencies stabilize. The shadow store holds copies of the books with
+     * ample stock, is configured like the live store and delivers through
+     * {@link DeliveryGateway#NO_OP}, so the live stock, mail, shipping and
+     * listeners are never touched.
+     *
+     * @return The warm-up report
+     */
+    public WarmupReport run() {
+        long start = System.nanoTime();
+        List<Book> books = bookstore.getAllBooks();
+        int preloaded = primeLiveStore(books);
+
+        List<PurchaseRequest> profile = trafficProfile.isEmpty() ? syntheticProfile(books) : trafficProfile;
+        if (profile.isEmpty()) {
+            return new WarmupReport(true, 0, 0, 0, preloaded, Duration.ofNanos(System.nanoTime() - start));
+        }
+        List<OrderHistory> histories = new ArrayList<>();
+        QuantumBookstore shadow = createShadow(books, histories);
+        try {
+            return replayUntilStable(shadow, profile, histories, start, preloaded);
+        } finally {
+            for (OrderHistory history : histories) {
+                history.close();
+            }
+        }
+    }
+
+    /**
+     * Replays batches of the traffic profile against the shadow store until
+     * their latencies stabilize or the time runs out.
+     *
+     * @param shadow The shadow store
+     * @param profile The purchase requests to replay
+     * @param histories The shadow order histories, renewed after every batch
+     * @param start The start of the warm-up in nanoseconds
+     * @param preloaded The number of eBook files preloaded
+     * @return The warm-up report
+     */
+    private WarmupReport replayUntilStable(QuantumBookstore shadow, List<PurchaseRequest> profile,
+            List<OrderHistory> histories, long start, int preloaded) {
+
+        PurchaseResult result = new PurchaseResult();
+        double previous = Double.NaN;
+        double current = 0;
+        int stable = 0;
+        int batches = 0;
+        long operations = 0;
+        int cursor = 0;
+        while (stable < stableBatches && System.nanoTime() - start < maxDurationNanos) {
+            long batchStart = System.nanoTime();
+            for (int i = 0; i < batchSize; i++) {
+                PurchaseRequest request = profile.get(cursor);
+                cursor = cursor + 1 == profile.size() ? 0 : cursor + 1;
+                replay(shadow, request, result, i, operations + i);
+            }
+            current = (double) (System.nanoTime() - batchStart) / batchSize;
+            batches++;
+            operations += batchSize;
+            renewHistories(shadow, histories);
+
+            if (!Double.isNaN(previous) && Math.abs(current - previous) <= previous * tolerance) {
+                stable++;
+            } else {
+                stable = 0;
+            }
+            previous = current;
+        }
+
+        return new WarmupReport(stable >= stableBatches, batches, operations, current, preloaded,
+                Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * Touches every read path of the live store so that its caches and
+     * indexes are populated before traffic arrives. Price browsing reads only
+     * the first two pages of the price index, and books removed since the
+     * inventory was listed are skipped.
+     *
+     * @param books The books in the live inventory
+     * @return The number of eBook files preloaded
+     */
+    private int primeLiveStore(List<Book> books) {
+        bookstore.getCatalogSnapshot();
+        List<Book> cheapest = bookstore.getCheapestBooks(PRIME_PAGE_SIZE);
+        if (!cheapest.isEmpty()) {
+            Book last = cheapest.get(cheapest.size() - 1);
+            bookstore.getBooksSortedByPriceAfter(last.getPrice(), last.getISBN(), PRIME_PAGE_SIZE);
+        }
+        EBookContentStore content = contentStore;
+        int preloaded = 0;
+        for (Book book : books) {
+            try {
+                bookstore.getEffectivePrice(book.getISBN(), 1);
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            if (content != null && book instanceof EBook) {
+                try {
+                    if (content.preload((EBook) book)) {
+                        preloaded++;
+                    }
+                } catch (IOException e) {
+                    System.out.println("Quantum book store: Warm-up could not preload " + book.getTitle() + ": "
+                            + e.getMessage());
+                }
+            }
+        }
+        return preloaded;
+    }
+
+    /**
+     * Builds a side-effect-free copy of the live store. Hot titles are striped
+     * as in the live store, and the copy gets its own deduplicator, order histories and recommendation engine with the live
+     * settings, a rate limiter that never throttles, and a no-op listener in
+     * place of each listener whose side effects are unknown, so purchases run
+     * through the same steps as on the live store.
+     *
+     * @param books The books in the live inventory
+     * @param histories The list receiving the shadow order histories
+     * @return The shadow store
+     */
+    private QuantumBookstore createShadow(List<Book> books, List<OrderHistory> histories) {
+        QuantumBookstore shadow = new QuantumBookstore(bookstore.isSnapshotCatalog());
+        shadow.setDeliveryGateway(DeliveryGateway.NO_OP);
+        shadow.setPurchaseDeduplicator(bookstore.getPurchaseDeduplicator().emptyCopy());
+        if (bookstore.getRateLimiter() != null) {
+            shadow.setRateLimiter(new PurchaseRateLimiter(SHADOW_PERMITS_PER_SECOND, Integer.MAX_VALUE,
+                    SHADOW_PERMITS_PER_SECOND, Integer.MAX_VALUE));
+        }
+
+        RecommendationEngine engine = bookstore.getRecommendationEngine();
+        for (PurchaseListener listener : bookstore.getPurchaseListeners()) {
+            if (listener == engine) {
+                shadow.setRecommendationEngine(engine.emptyCopy());
+            } else if (listener instanceof OrderHistory) {
+                OrderHistory history = new OrderHistory();
+                histories.add(history);
+                shadow.addPurchaseListener(history);
+            } else {
+                shadow.addPurchaseListener(NO_OP_LISTENER);
+            }
+        }
+
+        List<Book> copies = new ArrayList<>(books.size());
+        List<String> hotTitles = new ArrayList<>();
+        for (Book book : books) {
+            Book copy = copyOf(book);
+            if (copy != null) {
+                copies.add(copy);
+                if (book instanceof PaperBook && ((PaperBook) book).getWarehouseStock().isStriped()) {
+                    hotTitles.add(book.getISBN());
+                }
+            }
+        }
+        shadow.addBooks(copies);
+        for (String isbn : hotTitles) {
+            shadow.designateHotTitle(isbn);
+        }
+
+        PricingEngine pricing = bookstore.getPricingEngine();
+        if (pricing != null) {
+            PricingEngine shadowPricing = new PricingEngine();
+            shadowPricing.setRules(pricing.getRules());
+            shadow.setPricingEngine(shadowPricing);
+        }
+        return shadow;
+    }
+
+    /**
+     * Replaces each shadow order history with an empty one so that the
+     * recorded orders do not pile up over a long warm-up.
+     *
+     * @param shadow The shadow store
+     * @param histories The shadow order histories
+     */
+    private static void renewHistories(QuantumBookstore shadow, List<OrderHistory> histories) {
+        for (int i = 0; i < histories.size(); i++) {
+            OrderHistory previous = histories.get(i);
+            OrderHistory renewed = new OrderHistory();
+            shadow.addPurchaseListener(renewed);
+            shadow.removePurchaseListener(previous);
+            previous.close();
+            histories.set(i, renewed);
+        }
+    }
+
+    /**
+     * Replays one operation. Purchases are interleaved with the lookups,
+     * searches and price browsing that usually surround them.
+     *
+     * @param shadow The shadow store
+     * @param request The recorded purchase request
+     * @param result The reusable purchase result
+     * @param step The position of the operation in the batch
+     * @param sequence The position of the operation in the whole warm-up,
+     * used to derive unique idempotency keys
+     */
+    private static void replay(QuantumBookstore shadow, PurchaseRequest request, PurchaseResult result, int step,
+            long sequence) {
+        switch (step & 7) {
+            case 0:
+            case 1:
+            case 2:
+                shadow.tryBuy(request, result);
+                break;
+            case 3:
+                shadow.tryBuy(SHADOW_KEY_PREFIX + sequence, request, result);
+                break;
+            case 4:
+                shadow.findBook(request.getISBN());
+                break;
+            case 5:
+                Book book = shadow.findBook(request.getISBN());
+                if (book != null) {
+                    shadow.searchByTitle(book.getTitle());
+                }
+                break;
+            case 6:
+                shadow.getCheapestBooks(10);
+                break;
+            default:
+                shadow.getBooksSortedByPrice(0, 20);
+                break;
+        }
+    }
+
+    /**
+     * Builds a profile that buys one copy of every book.
+     *
+     * @param books The books in the live inventory
+     * @return The synthetic purchase requests
+     */
+    private static List<PurchaseRequest> syntheticProfile(List<Book> books) {
+        List<PurchaseRequest> requests = new ArrayList<>(books.size());
+        for (Book book : books) {
+            requests.add(new PurchaseRequest(book.getISBN(), 1, SHADOW_EMAIL, SHADOW_ADDRESS));
+        }
+        return requests;
+    }
+
+    /**
+     * Copies a book for the shadow store, giving every warehouse of a paper
+     * book ample stock.
+     *
+     * @param book The live book
+     * @return The copy, or null for book types the warm-up does not know
+     */
+    private static Book copyOf(Book book) {
+        if (book instanceof PaperBook) {
+            WarehouseStock live = ((PaperBook) book).getWarehouseStock();
+            Map<Warehouse, Integer> stock = new LinkedHashMap<>();
+            for (Warehouse warehouse : live.getWarehouses()) {
+                stock.put(warehouse, SHADOW_STOCK);
+            }
+            return new PaperBook(book.getISBN(), book.getTitle(), book.getPublishYear(), book.getPrice(),
+                    book.getAuthorName(), new WarehouseStock(live.getDefaultWarehouse(), stock));
+        }
+        if (book instanceof EBook) {
+            return new EBook(book.getISBN(), book.getTitle(), book.getPublishYear(), book.getPrice(),
+                    book.getAuthorName(), ((EBook) book).getFileType());
+        }
+        if (book instanceof ShowcaseBook) {
+            return new ShowcaseBook(book.getISBN(), book.getTitle(), book.getPublishYear(), book.getPrice(),
+                    book.getAuthorName());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,210 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+public class StripedStockCounter implements StockCounter {
+
+    /**
+     * Distance in ints between two slices, so that each slice sits on its own
+     * cache line and threads updating different slices do not contend.
+     */
+    private static final int PADDING = 32;
+
+    private final AtomicIntegerArray slices;
+    private final int mask;
+    private final Object lock = new Object();
+    private volatile boolean retired;
+
+    /**
+     * Constructs a counter with one slice per available processor.
+     *
+     * @param stock The initial stock quantity
+     * @throws IllegalArgumentException if stock is negative
+     */
+    public StripedStockCounter(int stock) {
+        this(stock, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a counter split into slices. The slice count is rounded up to
+     * a power of two.
+     *
+     * @param stock The initial stock quantity
+     * @param stripes The number of slices
+     * @throws IllegalArgumentException if stock is negative or stripes is not
+     * positive
+     */
+    public StripedStockCounter(int stock, int stripes) {
+        if (stock < 0) {
+            throw new IllegalArgumentException("Stock cannot be negative");
+        }
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Stripe count must be positive");
+        }
+        int size = Integer.highestOneBit(stripes);
+        if (size < stripes) {
+            size <<= 1;
+        }
+        this.slices = new AtomicIntegerArray(size * PADDING);
+        this.mask = size - 1;
+        distribute(stock);
+    }
+
+    /**
+     * Gets the number of slices.
+     *
+     * @return The slice count
+     */
+    public int getStripes() {
+        return mask + 1;
+    }
+
+    /**
+     * Gets the current stock as the sum of all slices. Stock moving between
+     * slices during a rebalance may be missed by a concurrent read.
+     *
+     * @return The stock quantity, or 0 if the counter has been retired
+     */
+    @Override
+    public int get() {
+        int total = 0;
+        for (int i = 0; i <= mask; i++) {
+            total += slices.get(i * PADDING);
+        }
+        return total;
+    }
+
+    /**
+     * Takes stock from the calling thread's slice, falling back to
+     * consolidating all slices under a lock when that slice runs dry.
+     *
+     * @param quantity The quantity to take
+     * @param partial Whether to take whatever is available up to the quantity
+     * @return The quantity taken, or {@link #RETIRED} if retired
+     */
+    @Override
+    public int take(int quantity, boolean partial) {
+        int slot = slot();
+        while (true) {
+            int available = slices.get(slot);
+            if (available < quantity) {
+                break;
+            }
+            if (slices.compareAndSet(slot, available, available - quantity)) {
+                return quantity;
+            }
+        }
+        return rebalanceAndTake(quantity, partial);
+    }
+
+    /**
+     * Returns stock to the calling thread's slice.
+     *
+     * @param quantity The quantity to add
+     * @return true if added, false if retired
+     */
+    @Override
+    public boolean add(int quantity) {
+        synchronized (lock) {
+            if (retired) {
+                return false;
+            }
+            slices.addAndGet(slot(), quantity);
+            return true;
+        }
+    }
+
+    /**
+     * Overwrites the stock and spreads it evenly over the slices.
+     *
+     * @param stock The new stock quantity
+     * @return true if set, false if retired
+     */
+    @Override
+    public boolean set(int stock) {
+        synchronized (lock) {
+            if (retired) {
+                return false;
+            }
+            drain();
+            distribute(stock);
+            return true;
+        }
+    }
+
+    /**
+     * Retires the counter and empties every slice.
+     *
+     * @return The stock held at retirement
+     */
+    @Override
+    public int retire() {
+        synchronized (lock) {
+            if (retired) {
+                return 0;
+            }
+            retired = true;
+            return drain();
+        }
+    }
+
+    /**
+     * Collects every slice, takes the quantity from the total and spreads the
+     * rest evenly again. Concurrent fast-path takes only ever decrement a
+     * slice that holds enough, so the total is never oversold.
+     *
+     * @param quantity The quantity to take
+     * @param partial Whether to take whatever is available up to the quantity
+     * @return The quantity taken, or {@link #RETIRED} if retired
+     */
+    private int rebalanceAndTake(int quantity, boolean partial) {
+        synchronized (lock) {
+            if (retired) {
+                return RETIRED;
+            }
+            int total = drain();
+            int taken = total >= quantity ? quantity : (partial ? total : 0);
+            distribute(total - taken);
+            return taken;
+        }
+    }
+
+    /**
+     * Empties every slice.
+     *
+     * @return The stock removed
+     */
+    private int drain() {
+        int total = 0;
+        for (int i = 0; i <= mask; i++) {
+            total += slices.getAndSet(i * PADDING, 0);
+        }
+        return total;
+    }
+
+    /**
+     * Adds stock evenly to the slices, the remainder going to the first ones.
+     *
+     * @param stock The stock to spread
+     */
+    private void distribute(int stock) {
+        int share = stock / (mask + 1);
+        int remainder = stock % (mask + 1);
+        for (int i = 0; i <= mask; i++) {
+            int amount = share + (i < remainder ? 1 : 0);
+            if (amount > 0) {
+                slices.addAndGet(i * PADDING, amount);
+            }
+        }
+    }
+
+    /**
+     * Picks the calling thread's slice from a mix of its id.
+     *
+     * @return The array index of the slice
+     */
+    private int slot() {
+        long id = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+        return ((int) (id >>> 32) & mask) * PADDING;
+    }
+}
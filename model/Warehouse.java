@@ -0,0 +1,110 @@
+package model;
+
+import java.util.Locale;
+
+public final class Warehouse {
+
+    /**
+     * The single warehouse used by paper books created with a plain stock
+     * count. It serves every address at the original flat shipping rate.
+     */
+    public static final Warehouse DEFAULT = new Warehouse("MAIN", "", 5.0, 2.0, 0.0);
+
+    private final String id;
+    private final String region;
+    private final double baseShippingCost;
+    private final double perBookShippingCost;
+    private final double outOfRegionSurcharge;
+
+    /**
+     * Constructs a warehouse with its shipping cost model.
+     *
+     * @param id The unique identifier of the warehouse
+     * @param region The region the warehouse serves locally (e.g., "Cairo");
+     * an empty region serves every address locally
+     * @param baseShippingCost The fixed cost of a shipment
+     * @param perBookShippingCost The cost added per shipped book
+     * @param outOfRegionSurcharge The cost added when the address is outside
+     * the warehouse's region
+     * @throws IllegalArgumentException if the id or region is null or a cost
+     * is negative
+     */
+    public Warehouse(String id, String region, double baseShippingCost, double perBookShippingCost,
+            double outOfRegionSurcharge) {
+        if (id == null || id.isBlank() || region == null) {
+            throw new IllegalArgumentException("Warehouse id and region cannot be null or empty");
+        }
+        if (baseShippingCost < 0 || perBookShippingCost < 0 || outOfRegionSurcharge < 0) {
+            throw new IllegalArgumentException("Shipping costs cannot be negative");
+        }
+        this.id = id;
+        this.region = region;
+        this.baseShippingCost = baseShippingCost;
+        this.perBookShippingCost = perBookShippingCost;
+        this.outOfRegionSurcharge = outOfRegionSurcharge;
+    }
+
+    /**
+     * Gets the unique identifier of the warehouse.
+     *
+     * @return The warehouse id
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Gets the region the warehouse serves locally.
+     *
+     * @return The region name
+     */
+    public String getRegion() {
+        return region;
+    }
+
+    /**
+     * Gets the fixed cost of a shipment.
+     *
+     * @return The base shipping cost
+     */
+    public double getBaseShippingCost() {
+        return baseShippingCost;
+    }
+
+    /**
+     * Gets the cost added per shipped book.
+     *
+     * @return The per-book shipping cost
+     */
+    public double getPerBookShippingCost() {
+        return perBookShippingCost;
+    }
+
+    /**
+     * Gets the cost added when shipping outside the warehouse's region.
+     *
+     * @return The out-of-region surcharge
+     */
+    public double getOutOfRegionSurcharge() {
+        return outOfRegionSurcharge;
+    }
+
+    /**
+     * Checks whether an address lies in the warehouse's region, by looking for
+     * the region name in the address (case-insensitive).
+     *
+     * @param address The destination address
+     * @return true if the address is served locally, false otherwise
+     */
+    public boolean servesLocally(String address) {
+        if (region.isEmpty()) {
+            return true;
+        }
+        return address != null && address.toLowerCase(Locale.ROOT).contains(region.toLowerCase(Locale.ROOT));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Warehouse{id='%s', region='%s'}", id, region);
+    }
+}
@@ -0,0 +1,352 @@
+package model;
+
+import java.util.*;
+import service.ShippingService;
+
+public class WarehouseStock {
+
+    private final Warehouse[] warehouses;
+    private volatile StockCounter[] counters;
+
+    /**
+     * Constructs stock held in a single warehouse.
+     *
+     * @param warehouse The warehouse holding the stock
+     * @param stock The initial stock quantity
+     * @throws IllegalArgumentException if the warehouse is null or the stock
+     * is negative
+     */
+    public WarehouseStock(Warehouse warehouse, int stock) {
+        this(singleWarehouse(warehouse, stock));
+    }
+
+    /**
+     * Constructs stock spread over several warehouses. The first warehouse in
+     * the map's iteration order becomes the default warehouse, so pass an
+     * ordered map such as a {@link LinkedHashMap}, or use
+     * {@link #WarehouseStock(Warehouse, Map)} to name the default explicitly.
+     *
+     * @param stockByWarehouse The initial stock quantity per warehouse
+     * @throws IllegalArgumentException if no warehouse is given, a warehouse
+     * is null or a quantity is negative
+     */
+    public WarehouseStock(Map<Warehouse, Integer> stockByWarehouse) {
+        this(firstWarehouse(stockByWarehouse), stockByWarehouse);
+    }
+
+    /**
+     * Constructs stock spread over several warehouses with an explicit
+     * default warehouse. The default warehouse receives the whole stock when
+     * the total is reset; the others follow in the map's iteration order.
+     *
+     * @param defaultWarehouse The warehouse receiving the stock on reset
+     * @param stockByWarehouse The initial stock quantity per warehouse
+     * @throws IllegalArgumentException if no warehouse is given, a warehouse
+     * is null, a quantity is negative or the default warehouse is not in the map
+     */
+    public WarehouseStock(Warehouse defaultWarehouse, Map<Warehouse, Integer> stockByWarehouse) {
+        if (stockByWarehouse == null || stockByWarehouse.isEmpty()) {
+            throw new IllegalArgumentException("At least one warehouse is required");
+        }
+        if (defaultWarehouse == null || !stockByWarehouse.containsKey(defaultWarehouse)) {
+            throw new IllegalArgumentException("Default warehouse must hold part of the stock");
+        }
+        Map<Warehouse, Integer> ordered = new LinkedHashMap<>();
+        ordered.put(defaultWarehouse, stockByWarehouse.get(defaultWarehouse));
+        ordered.putAll(stockByWarehouse);
+
+        this.warehouses = new Warehouse[ordered.size()];
+        StockCounter[] initial = new StockCounter[ordered.size()];
+
+        int index = 0;
+        for (Map.Entry<Warehouse, Integer> entry : ordered.entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == null || entry.getValue() < 0) {
+                throw new IllegalArgumentException("Warehouse cannot be null and stock cannot be negative");
+            }
+            warehouses[index] = entry.getKey();
+            initial[index] = new AtomicStockCounter(entry.getValue());
+            index++;
+        }
+        this.counters = initial;
+    }
+
+    /**
+     * Wraps the stock of a single warehouse in a map.
+     *
+     * @param warehouse The warehouse holding the stock
+     * @param stock The initial stock quantity
+     * @return A map holding the single warehouse
+     * @throws IllegalArgumentException if the warehouse is null or the stock
+     * is negative
+     */
+    private static Map<Warehouse, Integer> singleWarehouse(Warehouse warehouse, int stock) {
+        if (warehouse == null || stock < 0) {
+            throw new IllegalArgumentException("Warehouse cannot be null and stock cannot be negative");
+        }
+        return Map.of(warehouse, stock);
+    }
+
+    /**
+     * Gets the first warehouse in a map's iteration order.
+     *
+     * @param stockByWarehouse The initial stock quantity per warehouse
+     * @return The first warehouse
+     * @throws IllegalArgumentException if no warehouse is given
+     */
+    private static Warehouse firstWarehouse(Map<Warehouse, Integer> stockByWarehouse) {
+        if (stockByWarehouse == null || stockByWarehouse.isEmpty()) {
+            throw new IllegalArgumentException("At least one warehouse is required");
+        }
+        return stockByWarehouse.keySet().iterator().next();
+    }
+
+    /**
+     * Gets the default warehouse, which receives the whole stock when the
+     * total is reset.
+     *
+     * @return The default warehouse
+     */
+    public Warehouse getDefaultWarehouse() {
+        return warehouses[0];
+    }
+
+    /**
+     * Gets the warehouses holding this stock, starting with the default
+     * warehouse.
+     *
+     * @return An unmodifiable list of warehouses
+     */
+    public List<Warehouse> getWarehouses() {
+        return List.of(warehouses);
+    }
+
+    /**
+     * Gets the total stock across all warehouses. Under concurrent purchases
+     * this is a moment-in-time estimate.
+     *
+     * @return The total stock quantity
+     */
+    public int getTotal() {
+        StockCounter[] current = counters;
+        int total = 0;
+        for (StockCounter counter : current) {
+            total += counter.get();
+        }
+        return total;
+    }
+
+    /**
+     * Gets the stock held in one warehouse.
+     *
+     * @param warehouse The warehouse
+     * @return The stock quantity in that warehouse
+     * @throws IllegalArgumentException if the warehouse does not hold this stock
+     */
+    public int getStock(Warehouse warehouse) {
+        return counters[indexOf(warehouse)].get();
+    }
+
+    /**
+     * Sets the stock held in one warehouse.
+     *
+     * @param warehouse The warehouse
+     * @param stock The new stock quantity
+     * @throws IllegalArgumentException if the warehouse does not hold this
+     * stock or the quantity is negative
+     */
+    public void setStock(Warehouse warehouse, int stock) {
+        if (stock < 0) {
+            throw new IllegalArgumentException("Stock cannot be negative");
+        }
+        int index = indexOf(warehouse);
+        while (!counters[index].set(stock)) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Places the whole stock in the default warehouse and empties the others.
+     *
+     * @param stock The new total stock quantity
+     */
+    void reset(int stock) {
+        for (int i = 0; i < warehouses.length; i++) {
+            int value = i == 0 ? stock : 0;
+            while (!counters[i].set(value)) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * Checks whether the stock uses striped counters.
+     *
+     * @return true if the counters are striped
+     */
+    public boolean isStriped() {
+        return counters[0] instanceof StripedStockCounter;
+    }
+
+    /**
+     * Replaces every warehouse counter with a {@link StripedStockCounter} so
+     * that concurrent purchases of a hot title rarely contend. Each old
+     * counter is retired and its stock moved over; purchases that hit a
+     * retired counter retry on the new one.
+     *
+     * @param stripes The number of slices per counter
+     */
+    synchronized void stripe(int stripes) {
+        if (isStriped()) {
+            return;
+        }
+        StockCounter[] current = counters;
+        StockCounter[] striped = new StockCounter[current.length];
+        for (int i = 0; i < current.length; i++) {
+            striped[i] = new StripedStockCounter(0, stripes);
+        }
+        for (int i = 0; i < current.length; i++) {
+            striped[i].set(current[i].retire());
+        }
+        counters = striped;
+    }
+
+    /**
+     * Checks whether all stock is held in a single warehouse.
+     *
+     * @return true if there is exactly one warehouse
+     */
+    boolean isSingleWarehouse() {
+        return warehouses.length == 1;
+    }
+
+    /**
+     * Gets the warehouse at an index.
+     *
+     * @param index The warehouse index
+     * @return The warehouse
+     */
+    Warehouse getWarehouse(int index) {
+        return warehouses[index];
+    }
+
+    /**
+     * Takes stock from one warehouse without locking.
+     *
+     * @param index The warehouse index
+     * @param quantity The quantity to take
+     * @return true if taken, false if the warehouse has too little stock
+     */
+    boolean tryTake(int index, int quantity) {
+        return take(index, quantity, false) == quantity;
+    }
+
+    /**
+     * Returns stock to one warehouse.
+     *
+     * @param index The warehouse index
+     * @param quantity The quantity to return
+     */
+    void release(int index, int quantity) {
+        while (!counters[index].add(quantity)) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Reserves stock for an order, preferring the cheapest warehouse that can
+     * ship the whole order and otherwise splitting it across warehouses in
+     * order of shipping cost. Either the whole quantity is reserved or none.
+     *
+     * @param book The paper book being ordered
+     * @param quantity The quantity to reserve
+     * @param address The destination address used to rank warehouses
+     * @return The quantity reserved per warehouse index, or null if the
+     * warehouses together hold too little stock
+     */
+    int[] allocate(PaperBook book, int quantity, String address) {
+        Integer[] order = rankByShippingCost(book, quantity, address);
+        int[] taken = new int[warehouses.length];
+
+        for (int index : order) {
+            if (tryTake(index, quantity)) {
+                taken[index] = quantity;
+                return taken;
+            }
+        }
+
+        int remaining = quantity;
+        for (int index : order) {
+            if (remaining == 0) {
+                break;
+            }
+            int take = take(index, remaining, true);
+            taken[index] += take;
+            remaining -= take;
+        }
+
+        if (remaining > 0) {
+            for (int index = 0; index < taken.length; index++) {
+                if (taken[index] > 0) {
+                    release(index, taken[index]);
+                }
+            }
+            return null;
+        }
+        return taken;
+    }
+
+    /**
+     * Takes stock from one warehouse counter, retrying on the replacement if
+     * the counter was retired while striping.
+     *
+     * @param index The warehouse index
+     * @param quantity The quantity to take
+     * @param partial Whether to take whatever is available up to the quantity
+     * @return The quantity taken
+     */
+    private int take(int index, int quantity, boolean partial) {
+        while (true) {
+            int taken = counters[index].take(quantity, partial);
+            if (taken != StockCounter.RETIRED) {
+                return taken;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Orders the warehouse indexes by the cost of shipping the order from
+     * them.
+     *
+     * @param book The paper book being ordered
+     * @param quantity The ordered quantity
+     * @param address The destination address
+     * @return The warehouse indexes, cheapest first
+     */
+    private Integer[] rankByShippingCost(PaperBook book, int quantity, String address) {
+        Integer[] order = new Integer[warehouses.length];
+        double[] costs = new double[warehouses.length];
+        for (int i = 0; i < warehouses.length; i++) {
+            order[i] = i;
+            costs[i] = ShippingService.calculateShippingCost(book, quantity, address, warehouses[i]);
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(costs[a], costs[b]));
+        return order;
+    }
+
+    /**
+     * Finds the index of a warehouse.
+     *
+     * @param warehouse The warehouse
+     * @return Its index
+     * @throws IllegalArgumentException if the warehouse does not hold this stock
+     */
+    private int indexOf(Warehouse warehouse) {
+        for (int i = 0; i < warehouses.length; i++) {
+            if (warehouses[i] == warehouse) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown warehouse: " + warehouse);
+    }
+}
@@ -0,0 +1,95 @@
+package model;
+
+import java.time.Duration;
+
+public final class WarmupReport {
+
+    private final boolean ready;
+    private final int batches;
+    private final long operations;
+    private final double nanosPerOperation;
+    private final int preloadedEBooks;
+    private final Duration elapsed;
+
+    /**
+     * Constructs a warm-up report.
+     *
+     * @param ready Whether latencies stabilized before the time limit
+     * @param batches The number of traffic batches replayed
+     * @param operations The number of operations replayed
+     * @param nanosPerOperation The mean latency of the last batch
+     * @param preloadedEBooks The number of eBook files loaded into the cache
+     * @param elapsed The time the warm-up took
+     */
+    WarmupReport(boolean ready, int batches, long operations, double nanosPerOperation, int preloadedEBooks,
+            Duration elapsed) {
+        this.ready = ready;
+        this.batches = batches;
+        this.operations = operations;
+        this.nanosPerOperation = nanosPerOperation;
+        this.preloadedEBooks = preloadedEBooks;
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * Checks whether the store is ready, i.e. batch latencies stabilized
+     * before the time limit.
+     *
+     * @return true if ready, false if the time limit was reached first
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Gets the number of traffic batches replayed.
+     *
+     * @return The batch count
+     */
+    public int getBatches() {
+        return batches;
+    }
+
+    /**
+     * Gets the number of operations replayed against the shadow store.
+     *
+     * @return The operation count
+     */
+    public long getOperations() {
+        return operations;
+    }
+
+    /**
+     * Gets the mean latency of the last batch.
+     *
+     * @return The latency in nanoseconds per operation
+     */
+    public double getNanosPerOperation() {
+        return nanosPerOperation;
+    }
+
+    /**
+     * Gets the number of eBook files loaded into the content cache.
+     *
+     * @return The preloaded eBook count
+     */
+    public int getPreloadedEBooks() {
+        return preloadedEBooks;
+    }
+
+    /**
+     * Gets the time the warm-up took.
+     *
+     * @return The elapsed duration
+     */
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("WarmupReport{ready=%b, batches=%d, operations=%d, nanosPerOperation=%.1f, "
+                + "preloadedEBooks=%d, elapsed=%dms}", ready, batches, operations, nanosPerOperation,
+                preloadedEBooks, elapsed.toMillis());
+    }
+}
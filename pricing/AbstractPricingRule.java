@@ -0,0 +1,59 @@
+package pricing;
+
+import java.time.Instant;
+import java.util.Set;
+import model.Book;
+
+public abstract class AbstractPricingRule implements PricingRule {
+
+    private final Set<String> isbns;
+    private final int minQuantity;
+    private final Instant validFrom;
+    private final Instant validUntil;
+
+    /**
+     * Constructs a rule with its scope, quantity tier and active window.
+     *
+     * @param isbns The ISBNs the rule applies to, or an empty set for all books
+     * @param minQuantity The smallest purchase quantity the rule applies to
+     * @param validFrom The start of the active window, or null for no start
+     * @param validUntil The end of the active window, or null for no end
+     * @throws IllegalArgumentException if the ISBN set is null, the minimum
+     * quantity is not positive or the window is empty
+     */
+    protected AbstractPricingRule(Set<String> isbns, int minQuantity, Instant validFrom, Instant validUntil) {
+        if (isbns == null) {
+            throw new IllegalArgumentException("ISBN set cannot be null");
+        }
+        if (minQuantity <= 0) {
+            throw new IllegalArgumentException("Minimum quantity must be greater than 0");
+        }
+        if (validFrom != null && validUntil != null && !validFrom.isBefore(validUntil)) {
+            throw new IllegalArgumentException("Rule must be valid from before it is valid until");
+        }
+        this.isbns = Set.copyOf(isbns);
+        this.minQuantity = minQuantity;
+        this.validFrom = validFrom;
+        this.validUntil = validUntil;
+    }
+
+    @Override
+    public boolean appliesTo(Book book) {
+        return isbns.isEmpty() || isbns.contains(book.getISBN());
+    }
+
+    @Override
+    public int getMinQuantity() {
+        return minQuantity;
+    }
+
+    @Override
+    public Instant getValidFrom() {
+        return validFrom;
+    }
+
+    @Override
+    public Instant getValidUntil() {
+        return validUntil;
+    }
+}
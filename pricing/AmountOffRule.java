@@ -0,0 +1,55 @@
+package pricing;
+
+import java.time.Instant;
+import java.util.Set;
+
+public class AmountOffRule extends AbstractPricingRule {
+
+    private final long amountOffCents;
+
+    /**
+     * Constructs a fixed reduction that always applies to every quantity.
+     *
+     * @param isbns The ISBNs the rule applies to, or an empty set for all books
+     * @param amountOffCents The reduction per unit in cents
+     */
+    public AmountOffRule(Set<String> isbns, long amountOffCents) {
+        this(isbns, amountOffCents, 1, null, null);
+    }
+
+    /**
+     * Constructs a fixed reduction limited to a quantity tier and an active
+     * window.
+     *
+     * @param isbns The ISBNs the rule applies to, or an empty set for all books
+     * @param amountOffCents The reduction per unit in cents
+     * @param minQuantity The smallest purchase quantity the rule applies to
+     * @param validFrom The start of the active window, or null for no start
+     * @param validUntil The end of the active window, or null for no end
+     * @throws IllegalArgumentException if the reduction is negative
+     */
+    public AmountOffRule(Set<String> isbns, long amountOffCents, int minQuantity, Instant validFrom,
+            Instant validUntil) {
+        super(isbns, minQuantity, validFrom, validUntil);
+        if (amountOffCents < 0) {
+            throw new IllegalArgumentException("Amount off cannot be negative");
+        }
+        this.amountOffCents = amountOffCents;
+    }
+
+    /**
+     * Reduces the unit price by the fixed amount, never going below zero.
+     *
+     * @param unitPriceCents The unit price in cents before this rule
+     * @return The reduced unit price in cents
+     */
+    @Override
+    public long apply(long unitPriceCents) {
+        return Math.max(0, unitPriceCents - amountOffCents);
+    }
+
+    @Override
+    public String toString() {
+        return "AmountOffRule{amountOffCents=" + amountOffCents + ", minQuantity=" + getMinQuantity() + "}";
+    }
+}
@@ -0,0 +1,71 @@
+package pricing;
+
+public final class Money {
+
+    private static final double MAX_AMOUNT = Long.MAX_VALUE / 100.0;
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private Money() {
+        // Utility class should not be instantiated
+    }
+
+    /**
+     * Converts a decimal amount to whole cents, rounding to the nearest cent.
+     *
+     * @param amount The decimal amount (e.g., 59.99)
+     * @return The amount in cents (e.g., 5999)
+     * @throws IllegalArgumentException if the amount is not a finite number
+     * that fits in cents
+     */
+    public static long toCents(double amount) {
+        if (Double.isNaN(amount) || Math.abs(amount) >= MAX_AMOUNT) {
+            throw new IllegalArgumentException("Amount cannot be represented in cents: " + amount);
+        }
+        return Math.round(amount * 100.0);
+    }
+
+    /**
+     * Converts whole cents back to a decimal amount.
+     *
+     * @param cents The amount in cents
+     * @return The decimal amount
+     */
+    public static double toAmount(long cents) {
+        return cents / 100.0;
+    }
+
+    /**
+     * Formats whole cents as a decimal amount with two fraction digits (e.g.,
+     * 11998 as "119.98") without going through a format string.
+     *
+     * @param cents The amount in cents
+     * @return The formatted amount
+     */
+    public static String format(long cents) {
+        StringBuilder builder = new StringBuilder(24);
+        if (cents < 0) {
+            builder.append('-');
+        }
+        long absolute = Math.abs(cents);
+        long fraction = absolute % 100;
+        builder.append(absolute / 100).append('.');
+        if (fraction < 10) {
+            builder.append('0');
+        }
+        return builder.append(fraction).toString();
+    }
+
+    /**
+     * Multiplies a unit price by a quantity.
+     *
+     * @param unitPriceCents The unit price in cents
+     * @param quantity The quantity
+     * @return The total in cents
+     * @throws ArithmeticException if the total overflows
+     */
+    public static long multiply(long unitPriceCents, int quantity) {
+        return Math.multiplyExact(unitPriceCents, (long) quantity);
+    }
+}
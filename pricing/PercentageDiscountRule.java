@@ -0,0 +1,62 @@
+package pricing;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.Set;
+
+public class PercentageDiscountRule extends AbstractPricingRule {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final BigDecimal percentOff;
+
+    /**
+     * Constructs a discount that always applies to every quantity.
+     *
+     * @param isbns The ISBNs the rule applies to, or an empty set for all books
+     * @param percentOff The discount in percent (e.g., 15 or 12.5)
+     */
+    public PercentageDiscountRule(Set<String> isbns, BigDecimal percentOff) {
+        this(isbns, percentOff, 1, null, null);
+    }
+
+    /**
+     * Constructs a discount limited to a quantity tier and an active window.
+     *
+     * @param isbns The ISBNs the rule applies to, or an empty set for all books
+     * @param percentOff The discount in percent (e.g., 15 or 12.5)
+     * @param minQuantity The smallest purchase quantity the rule applies to
+     * @param validFrom The start of the active window, or null for no start
+     * @param validUntil The end of the active window, or null for no end
+     * @throws IllegalArgumentException if the percentage is not between 0 and
+     * 100
+     */
+    public PercentageDiscountRule(Set<String> isbns, BigDecimal percentOff, int minQuantity, Instant validFrom,
+            Instant validUntil) {
+        super(isbns, minQuantity, validFrom, validUntil);
+        if (percentOff == null || percentOff.signum() < 0 || percentOff.compareTo(HUNDRED) > 0) {
+            throw new IllegalArgumentException("Percentage off must be between 0 and 100");
+        }
+        this.percentOff = percentOff;
+    }
+
+    /**
+     * Reduces the unit price by the percentage, rounding half-even to the cent.
+     *
+     * @param unitPriceCents The unit price in cents before this rule
+     * @return The discounted unit price in cents
+     */
+    @Override
+    public long apply(long unitPriceCents) {
+        return BigDecimal.valueOf(unitPriceCents)
+                .multiply(HUNDRED.subtract(percentOff))
+                .divide(HUNDRED, 0, RoundingMode.HALF_EVEN)
+                .longValueExact();
+    }
+
+    @Override
+    public String toString() {
+        return "PercentageDiscountRule{percentOff=" + percentOff + ", minQuantity=" + getMinQuantity() + "}";
+    }
+}
@@ -0,0 +1,110 @@
+package pricing;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+public final class PriceEntry {
+
+    private final int[] minQuantities;
+    private final long[] unitPriceCents;
+    private final long validFromMillis;
+    private final long validUntilMillis;
+    private final long baseCents;
+    private final PricingRule[] rules;
+    private final long[] ruleFromMillis;
+    private final long[] ruleUntilMillis;
+
+    /**
+     * Constructs a compiled price entry. Tier {@code i} applies to quantities
+     * from {@code minQuantities[i]} up to the next tier, and the tiers hold
+     * while the set of active rules stays the same. Outside that window the price is worked
+     * out from the base price and the rules, each with its own validity
+     * window, so a lookup right after a sale starts or ends is correct before
+     * the entry is recompiled.
+     *
+     * @param minQuantities Ascending tier thresholds, starting at 1
+     * @param unitPriceCents The unit price in cents for each tier
+     * @param validFromMillis The epoch millisecond from which the tiers hold
+     * @param validUntilMillis The epoch millisecond at which the tiers stop
+     * holding (exclusive)
+     * @param baseCents The base unit price in cents before any rule
+     * @param rules Every rule that applies to the book, active or not, in
+     * rule set order
+     */
+    PriceEntry(int[] minQuantities, long[] unitPriceCents, long validFromMillis, long validUntilMillis,
+            long baseCents, PricingRule[] rules) {
+        this.minQuantities = minQuantities;
+        this.unitPriceCents = unitPriceCents;
+        this.validFromMillis = validFromMillis;
+        this.validUntilMillis = validUntilMillis;
+        this.baseCents = baseCents;
+        this.rules = rules;
+        this.ruleFromMillis = new long[rules.length];
+        this.ruleUntilMillis = new long[rules.length];
+        for (int i = 0; i < rules.length; i++) {
+            Instant from = rules[i].getValidFrom();
+            Instant until = rules[i].getValidUntil();
+            ruleFromMillis[i] = from == null ? Long.MIN_VALUE : from.toEpochMilli();
+            ruleUntilMillis[i] = until == null ? Long.MAX_VALUE : until.toEpochMilli();
+        }
+    }
+
+    /**
+     * Gets the effective unit price for a purchase quantity as compiled.
+     * Entries hold only a handful of tiers, so the lookup is constant time in
+     * practice.
+     *
+     * @param quantity The purchase quantity
+     * @return The unit price in cents
+     */
+    public long getUnitPriceCents(int quantity) {
+        int tier = minQuantities.length - 1;
+        while (tier > 0 && minQuantities[tier] > quantity) {
+            tier--;
+        }
+        return unitPriceCents[tier];
+    }
+
+    /**
+     * Gets the effective unit price for a purchase quantity at a point in
+     * time. Within the entry's validity window this is the compiled tier;
+     * outside it the rules active at that time are applied to the base price.
+     *
+     * @param quantity The purchase quantity
+     * @param nowMillis The time of the purchase as epoch milliseconds
+     * @return The unit price in cents
+     */
+    public long getUnitPriceCents(int quantity, long nowMillis) {
+        if (nowMillis >= validFromMillis && nowMillis < validUntilMillis) {
+            return getUnitPriceCents(quantity);
+        }
+        long unit = baseCents;
+        for (int i = 0; i < rules.length; i++) {
+            if (nowMillis >= ruleFromMillis[i] && nowMillis < ruleUntilMillis[i]
+                    && rules[i].getMinQuantity() <= quantity) {
+                unit = rules[i].apply(unit);
+            }
+        }
+        return unit;
+    }
+
+    /**
+     * Gets the number of quantity tiers in this entry.
+     *
+     * @return The tier count
+     */
+    public int getTierCount() {
+        return minQuantities.length;
+    }
+
+    /**
+     * Checks whether another entry has the same tiers and prices.
+     *
+     * @param other The entry to compare with
+     * @return true if both entries price every quantity the same
+     */
+    boolean hasSameTiers(PriceEntry other) {
+        return Arrays.equals(minQuantities, other.minQuantities)
+                && Arrays.equals(unitPriceCents, other.unitPriceCents);
+    }
+}
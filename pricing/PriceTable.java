@@ -0,0 +1,88 @@
+package pricing;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class PriceTable {
+
+    private final long version;
+    private final long nextChangeMillis;
+    private final Map<String, PriceEntry> entries;
+
+    /**
+     * Constructs a compiled price table.
+     *
+     * @param version The version of the rule set this table was compiled from
+     * @param nextChangeMillis The epoch millisecond at which a time-limited
+     * rule starts or ends, or Long.MAX_VALUE if no such change is pending
+     * @param entries The compiled entries keyed by ISBN
+     */
+    PriceTable(long version, long nextChangeMillis, ConcurrentHashMap<String, PriceEntry> entries) {
+        this.version = version;
+        this.nextChangeMillis = nextChangeMillis;
+        this.entries = entries;
+    }
+
+    /**
+     * Gets the compiled price entry for a book.
+     *
+     * @param isbn The ISBN of the book
+     * @return The price entry if compiled, null otherwise
+     */
+    public PriceEntry get(String isbn) {
+        return entries.get(isbn);
+    }
+
+    /**
+     * Gets the ISBNs that have a compiled entry.
+     *
+     * @return A live, unmodifiable view of the priced ISBNs
+     */
+    public Set<String> getIsbns() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    /**
+     * Replaces the entry of a single book, e.g. after its base price changed.
+     *
+     * @param isbn The ISBN of the book
+     * @param entry The new entry, or null to remove it
+     */
+    void put(String isbn, PriceEntry entry) {
+        if (entry == null) {
+            entries.remove(isbn);
+        } else {
+            entries.put(isbn, entry);
+        }
+    }
+
+    /**
+     * Gets the version of the rule set this table was compiled from.
+     *
+     * @return The table version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the epoch millisecond at which this table goes stale because a
+     * time-limited rule starts or ends.
+     *
+     * @return The next change time, or Long.MAX_VALUE if none is pending
+     */
+    public long getNextChangeMillis() {
+        return nextChangeMillis;
+    }
+
+    /**
+     * Gets the number of compiled entries.
+     *
+     * @return The entry count
+     */
+    public int size() {
+        return entries.size();
+    }
+}
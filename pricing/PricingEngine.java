@@ -0,0 +1,338 @@
+package pricing;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import model.Book;
+import model.PriceChangeListener;
+
+public class PricingEngine implements PriceChangeListener {
+
+    private static final ScheduledExecutorService SHARED_SCHEDULER =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "quantum-bookstore-pricing");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final Clock clock;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicReference<PriceTable> table;
+    private final AtomicBoolean recompileQueued = new AtomicBoolean();
+    private final Object compileLock = new Object();
+    private ScheduledFuture<?> scheduledRecompile;
+    private volatile List<PricingRule> rules = List.of();
+    private volatile Collection<? extends Book> books = List.of();
+    private long version;
+
+    /**
+     * Constructs a pricing engine with no rules that uses the system clock.
+     */
+    public PricingEngine() {
+        this(Clock.systemUTC());
+    }
+
+    /**
+     * Constructs a pricing engine with no rules that recompiles on a shared
+     * background thread.
+     *
+     * @param clock The clock used to decide which time-limited rules are active
+     */
+    public PricingEngine(Clock clock) {
+        this(clock, SHARED_SCHEDULER);
+    }
+
+    /**
+     * Constructs a pricing engine with no rules. When a time-limited rule
+     * starts or ends, the table is recompiled on the scheduler rather than on
+     * a purchasing thread.
+     *
+     * @param clock The clock used to decide which time-limited rules are active
+     * @param scheduler The scheduler running table recompilation
+     * @throws IllegalArgumentException if the clock or scheduler is null
+     */
+    public PricingEngine(Clock clock, ScheduledExecutorService scheduler) {
+        if (clock == null || scheduler == null) {
+            throw new IllegalArgumentException("Clock and scheduler cannot be null");
+        }
+        this.clock = clock;
+        this.scheduler = scheduler;
+        this.table = new AtomicReference<>(new PriceTable(0L, Long.MAX_VALUE, new ConcurrentHashMap<>()));
+    }
+
+    /**
+     * Binds the engine to the books it prices and compiles a price table for
+     * them. The collection is kept and re-read whenever the table is
+     * recompiled, so a live view of an inventory can be passed.
+     *
+     * @param books The books to price
+     */
+    public void bind(Collection<? extends Book> books) {
+        if (books == null) {
+            throw new IllegalArgumentException("Books cannot be null");
+        }
+        synchronized (compileLock) {
+            this.books = books;
+            compile();
+        }
+    }
+
+    /**
+     * Replaces the rule set and atomically swaps in a newly compiled price
+     * table. Rules are applied in list order, each to the result of the
+     * previous one.
+     *
+     * @param rules The new rule set
+     * @throws IllegalArgumentException if the list or any rule is null
+     */
+    public void setRules(List<? extends PricingRule> rules) {
+        if (rules == null) {
+            throw new IllegalArgumentException("Rules cannot be null");
+        }
+        for (PricingRule rule : rules) {
+            if (rule == null) {
+                throw new IllegalArgumentException("Rule cannot be null");
+            }
+        }
+        synchronized (compileLock) {
+            this.rules = List.copyOf(rules);
+            compile();
+        }
+    }
+
+    /**
+     * Gets the current rule set.
+     *
+     * @return An unmodifiable list of rules
+     */
+    public List<PricingRule> getRules() {
+        return rules;
+    }
+
+    /**
+     * Gets the currently published price table.
+     *
+     * @return The price table
+     */
+    public PriceTable getPriceTable() {
+        return table.get();
+    }
+
+    /**
+     * Gets the effective unit price of a book for a purchase quantity. This is
+     * a table lookup and never recompiles on the calling thread. Once a
+     * time-limited rule has started or ended, entries price purchases from
+     * their rules' validity windows until the background recompile publishes
+     * a new table, so no buyer is charged an expired price.
+     *
+     * @param book The book being purchased
+     * @param quantity The purchase quantity
+     * @return The unit price in cents
+     */
+    public long getUnitPriceCents(Book book, int quantity) {
+        long now = clock.millis();
+        PriceTable current = table.get();
+        if (now >= current.getNextChangeMillis() && recompileQueued.compareAndSet(false, true)) {
+            scheduler.execute(this::recompileIfDue);
+        }
+
+        PriceEntry entry = current.get(book.getISBN());
+        if (entry == null) {
+            return Money.toCents(book.getPrice());
+        }
+        return entry.getUnitPriceCents(quantity, now);
+    }
+
+    /**
+     * Gets the effective total price of a purchase.
+     *
+     * @param book The book being purchased
+     * @param quantity The purchase quantity
+     * @return The total in cents
+     */
+    public long getTotalCents(Book book, int quantity) {
+        return Money.multiply(getUnitPriceCents(book, quantity), quantity);
+    }
+
+    /**
+     * Recompiles the entry of a single book, e.g. after it was added.
+     *
+     * @param book The book to recompile
+     */
+    public void refresh(Book book) {
+        synchronized (compileLock) {
+            table.get().put(book.getISBN(), compileEntry(book, rules, clock.instant()));
+        }
+    }
+
+    /**
+     * Removes the entry of a book that is no longer sold.
+     *
+     * @param book The book to remove
+     */
+    public void remove(Book book) {
+        remove(book.getISBN());
+    }
+
+    /**
+     * Removes the entry compiled under an ISBN, e.g. one left behind after its
+     * book changed ISBN.
+     *
+     * @param isbn The ISBN to remove
+     */
+    public void remove(String isbn) {
+        synchronized (compileLock) {
+            table.get().put(isbn, null);
+        }
+    }
+
+    /**
+     * Checks whether the published entry of a book matches what compiling it
+     * now against the active rules would produce.
+     *
+     * @param book The book to check
+     * @return true if the book's entry is present and up to date
+     */
+    public boolean isCurrent(Book book) {
+        PriceEntry entry = table.get().get(book.getISBN());
+        return entry != null && entry.hasSameTiers(compileEntry(book, rules, clock.instant()));
+    }
+
+    /**
+     * Recompiles the entry of a book whose base price changed.
+     *
+     * @param book The book whose price changed
+     * @param oldPrice The price before the change
+     * @param newPrice The price after the change
+     */
+    @Override
+    public void onPriceChanged(Book book, double oldPrice, double newPrice) {
+        refresh(book);
+    }
+
+    /**
+     * Recompiles the table on the scheduler once a time-limited rule has
+     * started or ended. Does nothing if the table is not yet due, e.g. when
+     * the engine's clock runs behind the scheduler's.
+     */
+    private void recompileIfDue() {
+        recompileQueued.set(false);
+        synchronized (compileLock) {
+            if (clock.millis() >= table.get().getNextChangeMillis()) {
+                compile();
+            }
+        }
+    }
+
+    /**
+     * Compiles all bound books against the rules and publishes the resulting
+     * table, then schedules its recompilation for the next time a
+     * time-limited rule starts or ends. Must be called while holding the
+     * compile lock.
+     */
+    private void compile() {
+        Instant now = clock.instant();
+        List<PricingRule> current = rules;
+
+        ConcurrentHashMap<String, PriceEntry> entries = new ConcurrentHashMap<>();
+        for (Book book : books) {
+            entries.put(book.getISBN(), compileEntry(book, current, now));
+        }
+
+        long nextChange = nextChangeMillis(now);
+        table.set(new PriceTable(++version, nextChange, entries));
+
+        if (scheduledRecompile != null) {
+            scheduledRecompile.cancel(false);
+            scheduledRecompile = null;
+        }
+        if (nextChange != Long.MAX_VALUE) {
+            scheduledRecompile = scheduler.schedule(this::recompileIfDue,
+                    Math.max(0L, nextChange - now.toEpochMilli()), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Finds the next instant after {@code now} at which a rule starts or ends.
+     *
+     * @param now The current instant
+     * @return The next change as epoch milliseconds, or Long.MAX_VALUE if none
+     */
+    private long nextChangeMillis(Instant now) {
+        long next = Long.MAX_VALUE;
+        for (PricingRule rule : rules) {
+            for (Instant boundary : new Instant[] { rule.getValidFrom(), rule.getValidUntil() }) {
+                if (boundary != null && boundary.isAfter(now)) {
+                    next = Math.min(next, boundary.toEpochMilli());
+                }
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Compiles the quantity tiers of a single book from the rules active now,
+     * together with the window in which those tiers hold and every rule that
+     * applies to the book, so the entry stays correct across rule boundaries.
+     *
+     * @param book The book to compile
+     * @param rules The rule set
+     * @param now The instant to compile for
+     * @return The compiled price entry
+     */
+    private static PriceEntry compileEntry(Book book, List<PricingRule> rules, Instant now) {
+        List<PricingRule> applicable = new ArrayList<>();
+        List<PricingRule> active = new ArrayList<>();
+        TreeSet<Integer> thresholds = new TreeSet<>();
+        thresholds.add(1);
+        long nowMillis = now.toEpochMilli();
+        long validFrom = Long.MIN_VALUE;
+        long validUntil = Long.MAX_VALUE;
+        for (PricingRule rule : rules) {
+            if (!rule.appliesTo(book)) {
+                continue;
+            }
+            applicable.add(rule);
+            if (rule.isActiveAt(now)) {
+                active.add(rule);
+                thresholds.add(rule.getMinQuantity());
+            }
+            for (Instant boundary : new Instant[] { rule.getValidFrom(), rule.getValidUntil() }) {
+                if (boundary == null) {
+                    continue;
+                }
+                long millis = boundary.toEpochMilli();
+                if (millis <= nowMillis) {
+                    validFrom = Math.max(validFrom, millis);
+                } else {
+                    validUntil = Math.min(validUntil, millis);
+                }
+            }
+        }
+
+        long baseCents = Money.toCents(book.getPrice());
+        int[] minQuantities = new int[thresholds.size()];
+        long[] unitPriceCents = new long[thresholds.size()];
+        int tier = 0;
+        for (int threshold : thresholds) {
+            long unit = baseCents;
+            for (PricingRule rule : active) {
+                if (rule.getMinQuantity() <= threshold) {
+                    unit = rule.apply(unit);
+                }
+            }
+            minQuantities[tier] = threshold;
+            unitPriceCents[tier] = unit;
+            tier++;
+        }
+        return new PriceEntry(minQuantities, unitPriceCents, validFrom, validUntil, baseCents,
+                applicable.toArray(new PricingRule[0]));
+    }
+}
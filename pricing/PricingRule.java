@@ -0,0 +1,58 @@
+package pricing;
+
+import java.time.Instant;
+import model.Book;
+
+public interface PricingRule {
+
+    /**
+     * Checks whether this rule applies to the given book.
+     *
+     * @param book The book being priced
+     * @return true if the rule applies, false otherwise
+     */
+    boolean appliesTo(Book book);
+
+    /**
+     * Applies this rule to a unit price.
+     *
+     * @param unitPriceCents The unit price in cents before this rule
+     * @return The unit price in cents after this rule
+     */
+    long apply(long unitPriceCents);
+
+    /**
+     * Gets the smallest purchase quantity this rule applies to. Rules with a
+     * minimum quantity greater than one define quantity tiers.
+     *
+     * @return The minimum quantity
+     */
+    int getMinQuantity();
+
+    /**
+     * Gets the instant from which this rule is active.
+     *
+     * @return The start of the active window, or null if it has no start
+     */
+    Instant getValidFrom();
+
+    /**
+     * Gets the instant at which this rule stops being active.
+     *
+     * @return The end of the active window (exclusive), or null if it never
+     * expires
+     */
+    Instant getValidUntil();
+
+    /**
+     * Checks whether this rule is active at the given instant.
+     *
+     * @param now The instant to check
+     * @return true if the rule is active, false otherwise
+     */
+    default boolean isActiveAt(Instant now) {
+        Instant from = getValidFrom();
+        Instant until = getValidUntil();
+        return (from == null || !now.isBefore(from)) && (until == null || now.isBefore(until));
+    }
+}
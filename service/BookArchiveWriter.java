@@ -0,0 +1,81 @@
+package service;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import model.*;
+
+public class BookArchiveWriter implements Consumer<Book>, Closeable {
+
+    private final BufferedWriter writer;
+
+    /**
+     * Opens an archive file, appending to it if it already exists.
+     *
+     * @param file The archive file
+     * @throws IOException if the file cannot be opened
+     */
+    public BookArchiveWriter(Path file) throws IOException {
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Appends a book to the archive as one comma-separated line of type, ISBN,
+     * title, author, publication year and price.
+     *
+     * @param book The book to archive
+     * @throws UncheckedIOException if the line cannot be written
+     */
+    @Override
+    public synchronized void accept(Book book) {
+        try {
+            writer.write(book.getClass().getSimpleName());
+            writer.write(',');
+            writer.write(escape(book.getISBN()));
+            writer.write(',');
+            writer.write(escape(book.getTitle()));
+            writer.write(',');
+            writer.write(escape(book.getAuthorName()));
+            writer.write(',');
+            writer.write(Integer.toString(book.getPublishYear()));
+            writer.write(',');
+            writer.write(Double.toString(book.getPrice()));
+            writer.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to archive book " + book.getISBN(), e);
+        }
+    }
+
+    /**
+     * Flushes and closes the archive file.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+
+    /**
+     * Quotes a field if it contains a separator or quote.
+     *
+     * @param field The field value
+     * @return The field as it should appear in the archive
+     */
+    private static String escape(String field) {
+        if (field == null) {
+            return "";
+        }
+        if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0) {
+            return field;
+        }
+        return '"' + field.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,94 @@
+package service;
+
+import model.*;
+import pricing.Money;
+
+public interface DeliveryGateway {
+
+    /**
+     * Delivers through the console-logging {@link ShippingService} and
+     * {@link MailService}.
+     */
+    DeliveryGateway CONSOLE = new DeliveryGateway() {
+        @Override
+        public void shipBook(PaperBook book, int quantity, String address) {
+            ShippingService.shipBook(book, quantity, address);
+        }
+
+        @Override
+        public void shipBook(PaperBook book, int quantity, String address, Warehouse warehouse) {
+            ShippingService.shipBook(book, quantity, address, warehouse);
+        }
+
+        @Override
+        public void sendEBook(EBook book, int quantity, String email) {
+            MailService.sendEBook(book, quantity, email);
+        }
+
+        @Override
+        public void sendPurchaseConfirmation(String email, Book book, long totalCents) {
+            MailService.sendPurchaseConfirmation(email, book.getTitle(), Money.toAmount(totalCents));
+        }
+    };
+
+    /**
+     * Discards all deliveries. Useful for benchmarks and shadow traffic.
+     */
+    DeliveryGateway NO_OP = new DeliveryGateway() {
+        @Override
+        public void shipBook(PaperBook book, int quantity, String address) {
+        }
+
+        @Override
+        public void shipBook(PaperBook book, int quantity, String address, Warehouse warehouse) {
+        }
+
+        @Override
+        public void sendEBook(EBook book, int quantity, String email) {
+        }
+
+        @Override
+        public void sendPurchaseConfirmation(String email, Book book, long totalCents) {
+        }
+    };
+
+    /**
+     * Ships a purchased paper book.
+     *
+     * @param book The paper book to be shipped
+     * @param quantity The quantity of books to ship
+     * @param address The destination address for shipping
+     */
+    void shipBook(PaperBook book, int quantity, String address);
+
+    /**
+     * Ships part or all of a purchased paper book order from a specific
+     * warehouse. Defaults to {@link #shipBook(PaperBook, int, String)}.
+     *
+     * @param book The paper book to be shipped
+     * @param quantity The quantity of books to ship from this warehouse
+     * @param address The destination address for shipping
+     * @param warehouse The warehouse the books ship from
+     */
+    default void shipBook(PaperBook book, int quantity, String address, Warehouse warehouse) {
+        shipBook(book, quantity, address);
+    }
+
+    /**
+     * Sends a purchased eBook.
+     *
+     * @param book The eBook to be sent
+     * @param quantity The quantity of eBooks to send
+     * @param email The destination email address
+     */
+    void sendEBook(EBook book, int quantity, String email);
+
+    /**
+     * Sends a purchase confirmation.
+     *
+     * @param email The customer's email address
+     * @param book The purchased book
+     * @param totalCents The total amount paid in cents
+     */
+    void sendPurchaseConfirmation(String email, Book book, long totalCents);
+}
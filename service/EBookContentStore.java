@@ -0,0 +1,262 @@
+package service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import model.EBook;
+
+public class EBookContentStore {
+
+    private static final long DEFAULT_MAX_CACHE_BYTES = 64L * 1024 * 1024;
+    private static final long DEFAULT_MAX_CACHED_FILE_BYTES = 8L * 1024 * 1024;
+    private static final int DEFAULT_CHUNK_BYTES = 1024 * 1024;
+    private static final int MAX_ZERO_WRITES = 16;
+
+    private final Path rootDirectory;
+    private final long maxCacheBytes;
+    private final long maxCachedFileBytes;
+    private final int chunkBytes;
+    private final Map<Path, ByteBuffer> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes;
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+
+    /**
+     * Constructs a content store with a 64 MB cache for files up to 8 MB,
+     * streaming larger files in 1 MB chunks.
+     *
+     * @param rootDirectory The directory holding the eBook files
+     */
+    public EBookContentStore(Path rootDirectory) {
+        this(rootDirectory, DEFAULT_MAX_CACHE_BYTES, DEFAULT_MAX_CACHED_FILE_BYTES, DEFAULT_CHUNK_BYTES);
+    }
+
+    /**
+     * Constructs a content store. Files are looked up as
+     * {@code <rootDirectory>/<isbn>.<fileType>}, e.g. {@code 978-0135166307.pdf}.
+     *
+     * @param rootDirectory The directory holding the eBook files
+     * @param maxCacheBytes The total size of memory-mapped files kept cached
+     * @param maxCachedFileBytes The size above which a file is streamed from
+     * disk instead of cached
+     * @param chunkBytes The number of bytes transferred per streaming step
+     * @throws IllegalArgumentException if the directory is null or a size is
+     * negative or a chunk is not positive
+     */
+    public EBookContentStore(Path rootDirectory, long maxCacheBytes, long maxCachedFileBytes, int chunkBytes) {
+        if (rootDirectory == null) {
+            throw new IllegalArgumentException("Root directory cannot be null");
+        }
+        if (maxCacheBytes < 0 || maxCachedFileBytes < 0 || chunkBytes <= 0) {
+            throw new IllegalArgumentException("Cache sizes cannot be negative and chunk size must be greater than 0");
+        }
+        this.rootDirectory = rootDirectory.toAbsolutePath().normalize();
+        this.maxCacheBytes = maxCacheBytes;
+        this.maxCachedFileBytes = Math.min(maxCachedFileBytes, maxCacheBytes);
+        this.chunkBytes = chunkBytes;
+    }
+
+    /**
+     * Resolves the file holding the content of an eBook.
+     *
+     * @param book The eBook
+     * @return The path of its content file
+     * @throws IllegalArgumentException if the ISBN or file type would resolve
+     * outside the root directory
+     */
+    public Path resolve(EBook book) {
+        String fileName = book.getISBN() + "." + book.getFileType().toLowerCase(Locale.ROOT);
+        Path file = rootDirectory.resolve(fileName).normalize();
+        if (!file.getParent().equals(rootDirectory)) {
+            throw new IllegalArgumentException("Invalid eBook file name: " + fileName);
+        }
+        return file;
+    }
+
+    /**
+     * Writes the content of an eBook to a channel. Files small enough to cache
+     * are memory-mapped once and then served from the cache to every buyer;
+     * larger files are streamed with {@link FileChannel#transferTo}, which
+     * lets the operating system copy without passing through the heap.
+     *
+     * @param book The eBook to deliver
+     * @param target The blocking channel to write the content to
+     * @return The number of bytes written
+     * @throws IOException if the file cannot be read, the channel cannot be
+     * written, or the channel stops accepting bytes, e.g. because it is a
+     * non-blocking channel that is not ready
+     */
+    public long deliver(EBook book, WritableByteChannel target) throws IOException {
+        Path file = resolve(book);
+
+        ByteBuffer cached;
+        synchronized (cache) {
+            cached = cache.get(file);
+        }
+        if (cached != null) {
+            cacheHits.increment();
+            return writeFully(cached.duplicate(), target);
+        }
+
+        cacheMisses.increment();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size <= maxCachedFileBytes) {
+                ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                cache(file, mapped);
+                return writeFully(mapped.duplicate(), target);
+            }
+            return stream(channel, size, target);
+        }
+    }
+
+    /**
+     * Loads an eBook into the cache ahead of its first sale.
+     *
+     * @param book The eBook to preload
+     * @return true if the file is now cached, false if it is too large to cache
+     * @throws IOException if the file cannot be read
+     */
+    public boolean preload(EBook book) throws IOException {
+        Path file = resolve(book);
+        synchronized (cache) {
+            if (cache.containsKey(file)) {
+                return true;
+            }
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > maxCachedFileBytes) {
+                return false;
+            }
+            cache(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+            return true;
+        }
+    }
+
+    /**
+     * Drops an eBook from the cache, e.g. after its file was replaced.
+     *
+     * @param book The eBook to invalidate
+     */
+    public void invalidate(EBook book) {
+        Path file = resolve(book);
+        synchronized (cache) {
+            ByteBuffer removed = cache.remove(file);
+            if (removed != null) {
+                cachedBytes -= removed.capacity();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of deliveries served from the cache.
+     *
+     * @return The cache hit count
+     */
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    /**
+     * Gets the number of deliveries that had to open the file.
+     *
+     * @return The cache miss count
+     */
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    /**
+     * Gets the total size of the cached files.
+     *
+     * @return The cached size in bytes
+     */
+    public long getCachedBytes() {
+        synchronized (cache) {
+            return cachedBytes;
+        }
+    }
+
+    /**
+     * Adds a mapped file to the cache, evicting least recently used files
+     * until the cache fits.
+     *
+     * @param file The path of the file
+     * @param content The mapped content
+     */
+    private void cache(Path file, ByteBuffer content) {
+        synchronized (cache) {
+            ByteBuffer previous = cache.put(file, content);
+            if (previous != null) {
+                cachedBytes -= previous.capacity();
+            }
+            cachedBytes += content.capacity();
+
+            Iterator<ByteBuffer> eldest = cache.values().iterator();
+            while (cachedBytes > maxCacheBytes && eldest.hasNext()) {
+                ByteBuffer evicted = eldest.next();
+                if (evicted == content) {
+                    continue;
+                }
+                cachedBytes -= evicted.capacity();
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * Streams a file in chunks with zero-copy transfers.
+     *
+     * @param channel The open file channel
+     * @param size The file size
+     * @param target The channel to write to
+     * @return The number of bytes written
+     * @throws IOException if the transfer fails or the target stops accepting
+     * bytes
+     */
+    private long stream(FileChannel channel, long size, WritableByteChannel target) throws IOException {
+        long position = 0;
+        while (position < size) {
+            long sent = channel.transferTo(position, Math.min(chunkBytes, size - position), target);
+            if (sent <= 0) {
+                throw new IOException("Target channel stopped accepting eBook content at byte " + position);
+            }
+            position += sent;
+        }
+        return position;
+    }
+
+    /**
+     * Writes a buffer to a channel until it is drained. A channel that accepts
+     * no bytes {@value #MAX_ZERO_WRITES} times in a row fails the transfer
+     * instead of being spun on.
+     *
+     * @param content The buffer to write
+     * @param target The channel to write to
+     * @return The number of bytes written
+     * @throws IOException if writing fails or the target stops accepting bytes
+     */
+    private static long writeFully(ByteBuffer content, WritableByteChannel target) throws IOException {
+        long written = 0;
+        int zeroWrites = 0;
+        while (content.hasRemaining()) {
+            int sent = target.write(content);
+            if (sent > 0) {
+                written += sent;
+                zeroWrites = 0;
+            } else if (++zeroWrites == MAX_ZERO_WRITES) {
+                throw new IOException("Target channel stopped accepting eBook content at byte " + written);
+            }
+        }
+        return written;
+    }
+}
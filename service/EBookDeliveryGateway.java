@@ -0,0 +1,75 @@
+package service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.WritableByteChannel;
+import model.*;
+
+public class EBookDeliveryGateway implements DeliveryGateway {
+
+    private final DeliveryGateway delegate;
+    private final EBookContentStore contentStore;
+    private final EBookOutbox outbox;
+
+    /**
+     * Constructs a gateway that delivers eBook content and forwards
+     * everything else to another gateway.
+     *
+     * @param delegate The gateway for shipping, notifications and confirmations
+     * @param contentStore The store serving eBook files
+     * @param outbox The outbox opening a channel per delivery
+     */
+    public EBookDeliveryGateway(DeliveryGateway delegate, EBookContentStore contentStore, EBookOutbox outbox) {
+        if (delegate == null || contentStore == null || outbox == null) {
+            throw new IllegalArgumentException("Delegate, content store and outbox cannot be null");
+        }
+        this.delegate = delegate;
+        this.contentStore = contentStore;
+        this.outbox = outbox;
+    }
+
+    @Override
+    public void shipBook(PaperBook book, int quantity, String address) {
+        delegate.shipBook(book, quantity, address);
+    }
+
+    @Override
+    public void shipBook(PaperBook book, int quantity, String address, Warehouse warehouse) {
+        delegate.shipBook(book, quantity, address, warehouse);
+    }
+
+    /**
+     * Writes the eBook file to the customer's outbox and, once the transfer
+     * has completed, notifies the delegate. The file is sent once regardless
+     * of quantity, since every copy is identical.
+     *
+     * @param book The eBook to be sent
+     * @param quantity The quantity of eBooks purchased
+     * @param email The destination email address
+     * @throws UncheckedIOException if the content cannot be delivered, in
+     * which case the delegate is not notified
+     */
+    @Override
+    public void sendEBook(EBook book, int quantity, String email) {
+        try (WritableByteChannel channel = outbox.open(email, book)) {
+            contentStore.deliver(book, channel);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to deliver eBook " + book.getISBN() + " to " + email, e);
+        }
+        delegate.sendEBook(book, quantity, email);
+    }
+
+    @Override
+    public void sendPurchaseConfirmation(String email, Book book, long totalCents) {
+        delegate.sendPurchaseConfirmation(email, book, totalCents);
+    }
+
+    /**
+     * Gets the store serving eBook files.
+     *
+     * @return The content store
+     */
+    public EBookContentStore getContentStore() {
+        return contentStore;
+    }
+}
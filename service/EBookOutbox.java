@@ -0,0 +1,19 @@
+package service;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import model.EBook;
+
+public interface EBookOutbox {
+
+    /**
+     * Opens the channel that carries one eBook delivery to a customer, e.g.
+     * an attachment stream of an outgoing email. The caller closes it.
+     *
+     * @param email The customer's email address
+     * @param book The eBook being delivered
+     * @return A blocking channel for the eBook content
+     * @throws IOException if the channel cannot be opened
+     */
+    WritableByteChannel open(String email, EBook book) throws IOException;
+}
@@ -1,6 +1,7 @@
 package service;
 
 import model.*;
+import pricing.Money;
 
 public class MailService {
 
@@ -58,7 +59,7 @@ public class MailService {
         System.out.println("Quantum book store: Mail Service - Sending purchase confirmation:");
         System.out.println("Quantum book store: To: " + customerEmail);
         System.out.println("Quantum book store: Subject: Purchase Confirmation - " + bookTitle);
-        System.out.println("Quantum book store: Total Amount: $" + String.format("%.2f", totalAmount));
+        System.out.println("Quantum book store: Total Amount: $" + Money.format(Money.toCents(totalAmount)));
         System.out.println("Quantum book store: Confirmation email sent successfully!");
     }
 }
\ No newline at end of file
@@ -27,6 +27,23 @@ public class ShippingService {
         System.out.println("Quantum book store: Shipping initiated successfully!");
     }
 
+    /**
+     * Ships a paper book from a specific warehouse to the specified address.
+     *
+     * @param book     The paper book to be shipped
+     * @param quantity The quantity of books to ship
+     * @param address  The destination address for shipping
+     * @param warehouse The warehouse the books ship from
+     */
+    public static void shipBook(PaperBook book, int quantity, String address, Warehouse warehouse) {
+        System.out.println("Quantum book store: Shipping Service - Preparing to ship from warehouse "
+                + warehouse.getId() + ":");
+        System.out.println("Quantum book store: Book: " + book.getTitle() + " (ISBN: " + book.getISBN() + ")");
+        System.out.println("Quantum book store: Quantity: " + quantity);
+        System.out.println("Quantum book store: Destination: " + address);
+        System.out.println("Quantum book store: Shipping initiated successfully!");
+    }
+
     /**
      * Calculates estimated shipping cost for a paper book.
      * This is a utility method that can be used for cost estimation.
@@ -37,9 +54,24 @@ public class ShippingService {
      * @return The estimated shipping cost
      */
     public static double calculateShippingCost(PaperBook book, int quantity, String address) {
-        // Simple shipping cost calculation
-        double baseCost = 5.0;
-        double weightCost = quantity * 2.0; // $2 per book for weight
-        return baseCost + weightCost;
+        return calculateShippingCost(book, quantity, address, Warehouse.DEFAULT);
+    }
+
+    /**
+     * Calculates estimated shipping cost for a paper book shipped from a
+     * specific warehouse. Addresses outside the warehouse's region pay its
+     * out-of-region surcharge.
+     * 
+     * @param book      The paper book to calculate shipping for
+     * @param quantity  The quantity of books
+     * @param address   The destination address
+     * @param warehouse The warehouse the books ship from
+     * @return The estimated shipping cost
+     */
+    public static double calculateShippingCost(PaperBook book, int quantity, String address, Warehouse warehouse) {
+        double baseCost = warehouse.getBaseShippingCost();
+        double weightCost = quantity * warehouse.getPerBookShippingCost();
+        double surcharge = warehouse.servesLocally(address) ? 0 : warehouse.getOutOfRegionSurcharge();
+        return baseCost + weightCost + surcharge;
     }
 }
\ No newline at end of file
@@ -0,0 +1,432 @@
+package tests;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import model.*;
+import service.DeliveryGateway;
+
+public class LoadTestHarness {
+
+    /**
+     * The operations of the mixed workload.
+     */
+    public enum Operation {
+        /** Price browsing: sorted pages, cheapest books and price ranges. */
+        BROWSE,
+        /** Title and author searches. */
+        SEARCH,
+        /** Purchases through {@code tryBuy}. */
+        BUY,
+        /**
+         * Starts a pass of the scheduled {@link OutdatedBookPurger} unless one
+         * is already running; the pass then removes outdated books in time
+         * slices alongside the other operations.
+         */
+        PURGE,
+        /** Addition of new books. */
+        ADD
+    }
+
+    private static final String PREFIX = "Quantum book store: ";
+    private static final int INITIAL_STOCK = 1_000;
+    private static final int CUSTOMERS = 1_000;
+    private static final int PURGE_YEARS = 30;
+    private static final int PURGE_CHUNK_SIZE = 256;
+    private static final Duration PURGE_SLICE_BUDGET = Duration.ofMillis(2);
+    private static final Duration PURGE_PAUSE = Duration.ofMillis(1);
+
+    private final int threads;
+    private final Duration duration;
+    private final int initialBooks;
+    private final double skew;
+    private final Map<Operation, Integer> weights;
+
+    private final Queue<PaperBook> paperBooks = new ConcurrentLinkedQueue<>();
+    private final LongAdder initialStock = new LongAdder();
+    private final LongAdder soldStock = new LongAdder();
+    private final AtomicLong nextIsbn = new AtomicLong();
+    private final AtomicReference<CompletableFuture<Long>> purge =
+            new AtomicReference<>(CompletableFuture.completedFuture(0L));
+    private final LatencyHistogram purgePasses = new LatencyHistogram();
+    private final LongAdder purgedBooks = new LongAdder();
+    private final LongAdder purgeFailures = new LongAdder();
+
+    /**
+     * Constructs a load test.
+     *
+     * @param threads The number of platform threads driving the store
+     * @param duration How long to run the workload
+     * @param initialBooks The number of books in the catalog at the start
+     * @param skew The Zipf exponent of ISBN popularity
+     * @param weights The relative weight of each operation; missing operations
+     * are not run
+     * @throws IllegalArgumentException if a count or the duration is not
+     * positive, the skew is negative or no operation has a positive weight
+     */
+    public LoadTestHarness(int threads, Duration duration, int initialBooks, double skew,
+            Map<Operation, Integer> weights) {
+        if (threads <= 0 || initialBooks <= 0 || duration == null || duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Threads, books and duration must be positive");
+        }
+        if (skew < 0) {
+            throw new IllegalArgumentException("Skew cannot be negative");
+        }
+        if (weights == null || weights.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("At least one operation needs a positive weight");
+        }
+        this.threads = threads;
+        this.duration = duration;
+        this.initialBooks = initialBooks;
+        this.skew = skew;
+        this.weights = new EnumMap<>(weights);
+    }
+
+    /**
+     * Runs the workload against a fresh store, prints throughput and latency
+     * percentiles per operation and checks the invariants: every unit of
+     * paper book stock is either sold or still on the book, no stock is
+     * negative, every purge pass completed, and the store's secondary
+     * structures agree with the inventory. Purges run on an
+     * {@link OutdatedBookPurger} with its own scheduler thread, as in
+     * production, and the last pass is awaited before the checks. The store
+     * uses {@link DeliveryGateway#NO_OP} so that purchases do not log
+     * deliveries; {@code System.out} is left untouched, so catalog changes are
+     * still logged by the store as usual.
+     *
+     * @return true if every invariant held
+     * @throws InterruptedException if interrupted while waiting for threads
+     */
+    public boolean run() throws InterruptedException {
+        QuantumBookstore store = new QuantumBookstore();
+        store.setDeliveryGateway(DeliveryGateway.NO_OP);
+        ScheduledExecutorService purgeScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "load-test-purger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        OutdatedBookPurger purger = new OutdatedBookPurger(store, purgeScheduler, PURGE_CHUNK_SIZE,
+                PURGE_SLICE_BUDGET, PURGE_PAUSE, Clock.systemDefaultZone());
+
+        List<String> isbns = new ArrayList<>(initialBooks);
+        List<Book> books = new ArrayList<>(initialBooks);
+        for (int i = 0; i < initialBooks; i++) {
+            Book book = newBook();
+            books.add(book);
+            isbns.add(book.getISBN());
+        }
+        Collections.shuffle(isbns);
+        ZipfianGenerator popularity = new ZipfianGenerator(isbns.size(), skew);
+
+        Operation[] operations = Operation.values();
+        int[] cumulativeWeights = new int[operations.length];
+        int totalWeight = 0;
+        for (Operation operation : operations) {
+            totalWeight += Math.max(0, weights.getOrDefault(operation, 0));
+            cumulativeWeights[operation.ordinal()] = totalWeight;
+        }
+
+        List<Map<Operation, LatencyHistogram>> perThread = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long elapsed;
+        try {
+            store.addBooks(books);
+
+            for (int t = 0; t < threads; t++) {
+                Map<Operation, LatencyHistogram> histograms = new EnumMap<>(Operation.class);
+                for (Operation operation : operations) {
+                    histograms.put(operation, new LatencyHistogram());
+                }
+                perThread.add(histograms);
+                int total = totalWeight;
+                Thread thread = new Thread(() -> {
+                    try {
+                        start.await();
+                        long deadline = System.nanoTime() + duration.toNanos();
+                        PurchaseResult result = new PurchaseResult();
+                        while (System.nanoTime() < deadline) {
+                            Operation operation = pick(operations, cumulativeWeights, total);
+                            String isbn = isbns.get(popularity.next());
+                            long began = System.nanoTime();
+                            execute(store, purger, operation, isbn, result);
+                            histograms.get(operation).record(System.nanoTime() - began);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                }, "load-test-" + t);
+                thread.start();
+            }
+
+            long began = System.nanoTime();
+            start.countDown();
+            done.await();
+            elapsed = System.nanoTime() - began;
+            purge.get().join();
+        } finally {
+            purgeScheduler.shutdownNow();
+        }
+
+        return report(store, perThread, elapsed);
+    }
+
+    /**
+     * Runs one operation.
+     *
+     * @param store The store under load
+     * @param purger The purger running on its own scheduler
+     * @param operation The operation to run
+     * @param isbn A Zipf-distributed ISBN from the initial catalog
+     * @param result The thread's reusable purchase result
+     */
+    private void execute(QuantumBookstore store, OutdatedBookPurger purger, Operation operation, String isbn,
+            PurchaseResult result) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (operation) {
+            case BROWSE:
+                switch (random.nextInt(3)) {
+                    case 0:
+                        store.getBooksSortedByPrice(random.nextInt(5), 20);
+                        break;
+                    case 1:
+                        store.getCheapestBooks(10);
+                        break;
+                    default:
+                        double low = random.nextInt(50);
+                        store.findByPriceRange(low, low + 5);
+                        break;
+                }
+                break;
+            case SEARCH:
+                Book book = store.findBook(isbn);
+                if (book != null) {
+                    if (random.nextBoolean()) {
+                        store.searchByTitle(book.getTitle());
+                    } else {
+                        store.searchByAuthor(book.getAuthorName());
+                    }
+                }
+                break;
+            case BUY:
+                int quantity = 1 + random.nextInt(3);
+                String email = "customer" + random.nextInt(CUSTOMERS) + "@load.test";
+                PurchaseStatus status = store.tryBuy(new PurchaseRequest(isbn, quantity, email, "Load Street"),
+                        result);
+                if (status == PurchaseStatus.OK && result.getBook() instanceof PaperBook) {
+                    soldStock.add(quantity);
+                }
+                break;
+            case PURGE:
+                startPurge(purger);
+                break;
+            default:
+                store.addBook(newBook());
+                break;
+        }
+    }
+
+    /**
+     * Starts a scheduled purge pass unless the previous one is still running,
+     * timing the pass and counting the books it removes.
+     *
+     * @param purger The purger running on its own scheduler
+     */
+    private void startPurge(OutdatedBookPurger purger) {
+        CompletableFuture<Long> previous = purge.get();
+        CompletableFuture<Long> pass = new CompletableFuture<>();
+        if (!previous.isDone() || !purge.compareAndSet(previous, pass)) {
+            return;
+        }
+        long began = System.nanoTime();
+        purger.purgeOlderThan(PURGE_YEARS, book -> purgedBooks.increment()).whenComplete((removed, failure) -> {
+            purgePasses.record(System.nanoTime() - began);
+            if (failure != null) {
+                purgeFailures.increment();
+            }
+            pass.complete(removed == null ? 0L : removed);
+        });
+    }
+
+    /**
+     * Creates a book with a unique ISBN, tracking the stock of paper books.
+     * Publication years span more than the purge threshold so that purges
+     * keep finding books to remove.
+     *
+     * @return The new book
+     */
+    private Book newBook() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long id = nextIsbn.getAndIncrement();
+        String isbn = String.format("979-%010d", id);
+        int year = Year.now().getValue() - random.nextInt(PURGE_YEARS + 10);
+        double price = 5 + random.nextInt(4_500) / 100.0;
+        String title = "Load Title " + id;
+        String author = "Load Author " + (id % 97);
+
+        int kind = random.nextInt(20);
+        if (kind < 14) {
+            PaperBook book = new PaperBook(isbn, title, year, price, author, INITIAL_STOCK);
+            paperBooks.add(book);
+            initialStock.add(INITIAL_STOCK);
+            return book;
+        }
+        if (kind < 19) {
+            return new EBook(isbn, title, year, price, author, "EPUB");
+        }
+        return new ShowcaseBook(isbn, title, year, price, author);
+    }
+
+    /**
+     * Prints the results and checks the invariants.
+     *
+     * @param store The store after the run
+     * @param perThread The latency histograms of every thread
+     * @param elapsedNanos The wall-clock duration of the run
+     * @return true if every invariant held
+     */
+    private boolean report(QuantumBookstore store, List<Map<Operation, LatencyHistogram>> perThread,
+            long elapsedNanos) {
+        System.out.printf("%sLoad test: %d threads, %d ms, %d initial books, skew %.2f%n", PREFIX, threads,
+                elapsedNanos / 1_000_000, initialBooks, skew);
+
+        long totalOperations = 0;
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram merged = new LatencyHistogram();
+            for (Map<Operation, LatencyHistogram> histograms : perThread) {
+                merged.merge(histograms.get(operation));
+            }
+            if (merged.getCount() == 0) {
+                continue;
+            }
+            totalOperations += merged.getCount();
+            System.out.printf("%s  %-6s ops=%,10d  p50=%8.1fus  p90=%8.1fus  p99=%8.1fus  p99.9=%8.1fus"
+                    + "  max=%9.1fus%n", PREFIX, operation, merged.getCount(), micros(merged.getPercentile(50)),
+                    micros(merged.getPercentile(90)), micros(merged.getPercentile(99)),
+                    micros(merged.getPercentile(99.9)), micros(merged.getMax()));
+        }
+        System.out.printf("%sThroughput: %,.0f ops/s%n", PREFIX, totalOperations * 1e9 / elapsedNanos);
+        if (purgePasses.getCount() > 0) {
+            System.out.printf("%sScheduled purge: passes=%d removed=%d failed=%d  p50=%8.1fms  max=%9.1fms%n",
+                    PREFIX, purgePasses.getCount(), purgedBooks.sum(), purgeFailures.sum(),
+                    purgePasses.getPercentile(50) / 1e6, purgePasses.getMax() / 1e6);
+        }
+
+        long remaining = 0;
+        boolean negative = false;
+        for (PaperBook book : paperBooks) {
+            remaining += book.getStock();
+            negative |= book.getStock() < 0;
+        }
+        boolean conserved = initialStock.sum() == soldStock.sum() + remaining && !negative;
+        System.out.printf("%sStock conservation: initial=%d sold=%d remaining=%d %s%n", PREFIX,
+                initialStock.sum(), soldStock.sum(), remaining, conserved ? "OK" : "VIOLATED");
+
+        ConsistencyReport consistency = new ConsistencyChecker(store).check();
+        System.out.println(PREFIX + "Index consistency: " + (consistency.isConsistent() ? "OK" : consistency));
+
+        return conserved && purgeFailures.sum() == 0 && consistency.isConsistent();
+    }
+
+    /**
+     * Picks an operation according to the weights.
+     *
+     * @param operations The operations
+     * @param cumulativeWeights The running sum of weights per operation
+     * @param totalWeight The sum of all weights
+     * @return The picked operation
+     */
+    private static Operation pick(Operation[] operations, int[] cumulativeWeights, int totalWeight) {
+        int target = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (int i = 0; i < operations.length; i++) {
+            if (target < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    /**
+     * Converts nanoseconds to microseconds.
+     *
+     * @param nanos The duration in nanoseconds
+     * @return The duration in microseconds
+     */
+    private static double micros(long nanos) {
+        return nanos / 1_000.0;
+    }
+
+    /**
+     * Runs a load test configured from the command line and exits with status
+     * 1 if an invariant was violated.
+     *
+     * @param args Options {@code --threads=N}, {@code --seconds=N},
+     * {@code --books=N}, {@code --skew=S} and
+     * {@code --mix=browse:search:buy:purge:add}
+     * @throws InterruptedException if interrupted while waiting for threads
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int threads = 4 * Runtime.getRuntime().availableProcessors();
+        int seconds = 10;
+        int books = 1_000;
+        double skew = 0.99;
+        String mix = "40:25:30:1:4";
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            if (option.length != 2) {
+                throw new IllegalArgumentException("Options must look like --name=value: " + arg);
+            }
+            switch (option[0]) {
+                case "--threads":
+                    threads = Integer.parseInt(option[1]);
+                    break;
+                case "--seconds":
+                    seconds = Integer.parseInt(option[1]);
+                    break;
+                case "--books":
+                    books = Integer.parseInt(option[1]);
+                    break;
+                case "--skew":
+                    skew = Double.parseDouble(option[1]);
+                    break;
+                case "--mix":
+                    mix = option[1];
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + option[0]);
+            }
+        }
+
+        String[] parts = mix.split(":");
+        Operation[] operations = Operation.values();
+        if (parts.length != operations.length) {
+            throw new IllegalArgumentException("Mix must have " + operations.length + " weights: " + mix);
+        }
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (int i = 0; i < operations.length; i++) {
+            weights.put(operations[i], Integer.parseInt(parts[i]));
+        }
+
+        boolean passed = new LoadTestHarness(threads, Duration.ofSeconds(seconds), books, skew, weights).run();
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+}
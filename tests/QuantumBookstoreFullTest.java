@@ -1,7 +1,44 @@
 package tests;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.Year;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import model.*;
+import pricing.*;
+import service.*;
 
 public class QuantumBookstoreFullTest {
 
@@ -28,6 +65,21 @@ public class QuantumBookstoreFullTest {
         testErrorScenarios();
         testSearchFunctionality();
         testInventoryManagement();
+        testSnapshotCatalog();
+        testPriceBrowsing();
+        testDynamicPricing();
+        testAllocationFreePurchase();
+        testIdempotentPurchases();
+        testEBookDelivery();
+        testIncrementalPurge();
+        testOrderHistory();
+        testRecommendations();
+        testRateLimiting();
+        testMultiWarehouseStock();
+        testHotTitleStock();
+        testConsistencyChecker();
+        testStartupWarmup();
+        testLoadHarness();
 
         System.out.println("\nQuantum Bookstore: Test Summary:");
         System.out.printf("Quantum Bookstore: Tests passed: %d/%d%n", testsPassed, totalTests);
@@ -257,6 +309,970 @@ public class QuantumBookstoreFullTest {
         System.out.println("Quantum Bookstore: Inventory management tests completed.\n");
     }
 
+    /**
+     * Tests the immutable catalog snapshots published in snapshot catalog
+     * mode.
+     */
+    private void testSnapshotCatalog() {
+        System.out.println("Quantum Bookstore: Testing snapshot catalog...");
+
+        QuantumBookstore snapshotStore = new QuantumBookstore(true);
+        PaperBook paperBook = new PaperBook("978-7777777701", "Snapshot Java", 2023, 40.00, "Snapshot Author", 4);
+        EBook eBook = new EBook("978-7777777702", "Snapshot Python", 2023, 20.00, "Snapshot Author", "EPUB");
+        snapshotStore.addBooks(List.of(paperBook, eBook));
+
+        CatalogSnapshot before = snapshotStore.getCatalogSnapshot();
+        assertTrue("Snapshot should contain both books", before.size() == 2);
+
+        paperBook.setPrice(50.00);
+        assertTrue("Published snapshot should not see setter changes",
+                before.find("978-7777777701").getPrice() == 40.00);
+
+        snapshotStore.refreshCatalog();
+        CatalogSnapshot after = snapshotStore.getCatalogSnapshot();
+        assertTrue("Refresh should publish a newer version", after.getVersion() > before.getVersion());
+        assertTrue("Refreshed snapshot should see the new price", after.find("978-7777777701").getPrice() == 50.00);
+
+        assertTrue("Snapshot search should find books by author",
+                after.searchByAuthor("snapshot author").size() == 2);
+        assertTrue("Book listings should return live paper books",
+                snapshotStore.getBooksByType(PaperBook.class).get(0) == paperBook);
+
+        eBook.setTitle("Renamed Python");
+        assertTrue("Snapshot search should match and return the published metadata",
+                after.searchByTitle("Snapshot Python").get(0).getTitle().equals("Snapshot Python")
+                && after.searchByTitle("Renamed").isEmpty());
+        assertTrue("Store search should match the published metadata until the catalog is refreshed",
+                snapshotStore.searchByTitle("Snapshot Python").get(0) == eBook
+                && snapshotStore.searchByTitle("Renamed Python").isEmpty());
+        snapshotStore.refreshCatalog();
+        assertTrue("Store search should match the refreshed metadata",
+                snapshotStore.searchByTitle("Renamed Python").get(0) == eBook);
+
+        CatalogSnapshot published = snapshotStore.getCatalogSnapshot();
+        assertTrue("Reads without writes should return the same published snapshot",
+                snapshotStore.getCatalogSnapshot() == published);
+        for (int i = 0; i < 3; i++) {
+            snapshotStore.addBook(new EBook("978-777777771" + i, "Batched " + i, 2023, 5.00, "Batch Author", "PDF"));
+        }
+        CatalogSnapshot updated = snapshotStore.getCatalogSnapshot();
+        assertTrue("Every write should publish its own snapshot",
+                updated.getVersion() == published.getVersion() + 3 && updated.size() == 5
+                && snapshotStore.getInventorySize() == 5 && snapshotStore.searchByAuthor("Batch Author").size() == 3);
+        assertTrue("Earlier snapshots should not see later writes",
+                published.size() == 2 && published.find("978-7777777710") == null);
+
+        System.out.println("Quantum Bookstore: Snapshot catalog tests completed.\n");
+    }
+
+    /**
+     * Tests price-range and price-sorted browsing through the price index.
+     */
+    private void testPriceBrowsing() {
+        System.out.println("Quantum Bookstore: Testing price browsing...");
+
+        QuantumBookstore priceStore = new QuantumBookstore();
+        PaperBook cheap = new PaperBook("978-8888888801", "Cheap Book", 2023, 10.00, "Price Author", 5);
+        EBook middle = new EBook("978-8888888802", "Middle Book", 2023, 20.00, "Price Author", "PDF");
+        ShowcaseBook expensive = new ShowcaseBook("978-8888888803", "Expensive Book", 2023, 30.00, "Price Author");
+        priceStore.addBooks(List.of(cheap, middle, expensive));
+
+        assertTrue("Price range should include both bounds", priceStore.findByPriceRange(10.00, 20.00).size() == 2);
+        assertTrue("Cheapest book should come first", priceStore.getCheapestBooks(1).get(0) == cheap);
+        assertTrue("Most expensive book should come first", priceStore.getMostExpensiveBooks(1).get(0) == expensive);
+
+        cheap.setPrice(40.00);
+        assertTrue("Index should follow price changes", priceStore.getMostExpensiveBooks(1).get(0) == cheap);
+        assertTrue("Second page should hold the most expensive book",
+                priceStore.getBooksSortedByPrice(1, 2).get(0) == cheap);
+
+        List<Book> firstPage = priceStore.getBooksSortedByPriceAfter(Double.NEGATIVE_INFINITY, null, 2);
+        Book last = firstPage.get(1);
+        List<Book> nextPage = priceStore.getBooksSortedByPriceAfter(last.getPrice(), last.getISBN(), 2);
+        assertTrue("Keyset cursor should continue after the last book seen",
+                firstPage.equals(List.of(middle, expensive)) && nextPage.equals(List.of(cheap)));
+
+        PriceIndex index = new PriceIndex();
+        PaperBook raced = new PaperBook("978-8888888804", "Raced Book", 2023, 10.00, "Price Author", 1);
+        index.add(raced);
+        raced.setPrice(25.00);
+        index.onPriceChanged(raced, 10.00, 25.00);
+        index.onPriceChanged(raced, 25.00, 15.00);
+        assertTrue("Out-of-order price callbacks should index the current price",
+                index.findByPriceRange(25.00, 25.00).size() == 1 && index.findByPriceRange(15.00, 15.00).isEmpty());
+
+        try {
+            priceStore.findByPriceRange(50.00, 10.00);
+            assertFalse("Should not allow an inverted price range", true);
+        } catch (IllegalArgumentException e) {
+            assertTrue("Should throw exception for an inverted price range", true);
+        }
+
+        System.out.println("Quantum Bookstore: Price browsing tests completed.\n");
+    }
+
+    /**
+     * Tests discounts, quantity tiers and time-limited sales compiled by the
+     * pricing engine.
+     */
+    private void testDynamicPricing() {
+        System.out.println("Quantum Bookstore: Testing dynamic pricing...");
+
+        Instant now = Instant.parse("2025-06-01T12:00:00Z");
+        PricingEngine engine = new PricingEngine(Clock.fixed(now, ZoneOffset.UTC));
+        QuantumBookstore pricedStore = new QuantumBookstore();
+        pricedStore.setPricingEngine(engine);
+
+        EBook eBook = new EBook("978-9999999901", "Priced Book", 2023, 20.00, "Pricing Author", "PDF");
+        pricedStore.addBook(eBook);
+
+        engine.setRules(List.of(
+                new PercentageDiscountRule(Set.of("978-9999999901"), BigDecimal.TEN),
+                new AmountOffRule(Set.of(), 100, 3, null, null),
+                new PercentageDiscountRule(Set.of(), BigDecimal.valueOf(50), 1,
+                        now.minus(Duration.ofDays(2)), now.minus(Duration.ofDays(1)))));
+
+        assertTrue("Discount should apply to a single copy", pricedStore.getEffectivePrice("978-9999999901", 1) == 18.00);
+        assertTrue("Quantity tier should apply from 3 copies",
+                pricedStore.getEffectivePrice("978-9999999901", 3) == 17.00);
+
+        double amount = pricedStore.buyBook("978-9999999901", 4, "customer@email.com", "123 Main St");
+        assertTrue("Purchase should use the tiered price", Math.abs(amount - 68.00) < 0.001);
+
+        eBook.setPrice(30.00);
+        assertTrue("Price table should follow base price changes",
+                pricedStore.getEffectivePrice("978-9999999901", 1) == 27.00);
+
+        AtomicLong millis = new AtomicLong(now.toEpochMilli());
+        Clock movingClock = new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return Instant.ofEpochMilli(millis.get());
+            }
+        };
+        ScheduledExecutorService busyScheduler = Executors.newSingleThreadScheduledExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        busyScheduler.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        try {
+            PricingEngine saleEngine = new PricingEngine(movingClock, busyScheduler);
+            QuantumBookstore saleStore = new QuantumBookstore();
+            saleStore.setPricingEngine(saleEngine);
+            saleStore.addBook(new EBook("978-9999999902", "Sale Book", 2023, 20.00, "Pricing Author", "PDF"));
+            saleEngine.setRules(List.of(new PercentageDiscountRule(Set.of("978-9999999902"),
+                    BigDecimal.valueOf(50), 1, now.plus(Duration.ofHours(1)), now.plus(Duration.ofHours(2)))));
+            long compiled = saleEngine.getPriceTable().getVersion();
+
+            assertTrue("Sale should not apply before it starts",
+                    saleStore.getEffectivePrice("978-9999999902", 1) == 20.00);
+            millis.set(now.plus(Duration.ofHours(1)).toEpochMilli());
+            assertTrue("Sale should apply as soon as it starts, before any recompile",
+                    saleStore.getEffectivePrice("978-9999999902", 1) == 10.00
+                    && saleEngine.getPriceTable().getVersion() == compiled);
+            millis.set(now.plus(Duration.ofHours(2)).toEpochMilli());
+            assertTrue("Expired sale should not be charged",
+                    saleStore.getEffectivePrice("978-9999999902", 1) == 20.00);
+            release.countDown();
+            busyScheduler.submit(() -> { }).get();
+            assertTrue("Background recompile should publish a new table after the sale ends",
+                    saleEngine.getPriceTable().getVersion() > compiled
+                    && saleStore.getEffectivePrice("978-9999999902", 1) == 20.00);
+        } catch (InterruptedException | ExecutionException e) {
+            assertFalse("Background recompile should not fail: " + e, true);
+        } finally {
+            release.countDown();
+            busyScheduler.shutdownNow();
+        }
+
+        System.out.println("Quantum Bookstore: Dynamic pricing tests completed.\n");
+    }
+
+    /**
+     * Tests the status-code purchase path and checks that successful
+     * purchases through it do not allocate.
+     */
+    private void testAllocationFreePurchase() {
+        System.out.println("Quantum Bookstore: Testing allocation-free purchases...");
+
+        QuantumBookstore quietStore = new QuantumBookstore();
+        quietStore.setDeliveryGateway(DeliveryGateway.NO_OP);
+        quietStore.addBook(new PaperBook("978-1212121201", "Hot Path", 2023, 12.50, "Fast Author", 1_000_000));
+        quietStore.addBook(new ShowcaseBook("978-1212121202", "Glass Case", 2023, 99.00, "Fast Author"));
+
+        PurchaseResult result = new PurchaseResult();
+        PurchaseRequest request = new PurchaseRequest("978-1212121201", 2, "customer@email.com", "123 Main St");
+        assertTrue("Purchase should succeed", quietStore.tryBuy(request, result) == PurchaseStatus.OK);
+        assertTrue("Result should hold the amount in cents", result.getAmountCents() == 2500);
+
+        PurchaseRequest showcase = new PurchaseRequest("978-1212121202", 1, "customer@email.com", "123 Main St");
+        assertTrue("Showcase purchase should report a status",
+                quietStore.tryBuy(showcase, result) == PurchaseStatus.NOT_FOR_SALE);
+        PurchaseRequest missing = new PurchaseRequest("978-1212121203", 1, "customer@email.com", "123 Main St");
+        assertTrue("Missing book should report a status",
+                quietStore.tryBuy(missing, result) == PurchaseStatus.NOT_FOUND);
+
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+            long threadId = Thread.currentThread().getId();
+            for (int i = 0; i < 50_000; i++) {
+                quietStore.tryBuy(request, result);
+            }
+
+            int purchases = 100_000;
+            long before = allocations.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < purchases; i++) {
+                quietStore.tryBuy(request, result);
+            }
+            long allocated = allocations.getThreadAllocatedBytes(threadId) - before;
+            System.out.println("Quantum Bookstore: Bytes allocated per purchase: " + (double) allocated / purchases);
+            assertTrue("Successful purchases should not allocate", allocated < purchases);
+        }
+
+        System.out.println("Quantum Bookstore: Allocation-free purchase tests completed.\n");
+    }
+
+    /**
+     * Tests that retried purchases with the same idempotency key are
+     * replayed instead of executed again.
+     */
+    private void testIdempotentPurchases() {
+        System.out.println("Quantum Bookstore: Testing idempotent purchases...");
+
+        QuantumBookstore retryStore = new QuantumBookstore();
+        PaperBook paperBook = new PaperBook("978-1313131301", "Retry Book", 2023, 15.00, "Retry Author", 5);
+        retryStore.addBook(paperBook);
+
+        double first = retryStore.buyBook("order-1", "978-1313131301", 2, "customer@email.com", "123 Main St");
+        double retry = retryStore.buyBook("order-1", "978-1313131301", 2, "customer@email.com", "123 Main St");
+        assertTrue("Retry should return the original amount", first == retry);
+        assertTrue("Retry should not reduce stock again", paperBook.getStock() == 3);
+
+        retryStore.buyBook("order-2", "978-1313131301", 1, "customer@email.com", "123 Main St");
+        assertTrue("A new key should purchase again", paperBook.getStock() == 2);
+
+        PaperBook otherBook = new PaperBook("978-1313131302", "Other Retry Book", 2023, 5.00, "Retry Author", 5);
+        retryStore.addBook(otherBook);
+        retryStore.buyBook("order-1", "978-1313131302", 3, "other@email.com", "456 Side St");
+        assertTrue("Keys should be scoped per customer", otherBook.getStock() == 2);
+        try {
+            retryStore.buyBook("order-1", "978-1313131302", 1, "customer@email.com", "123 Main St");
+            assertFalse("Should reject a key reused for a different purchase", true);
+        } catch (IllegalArgumentException e) {
+            assertTrue("Should throw exception for a key reused for a different purchase",
+                    otherBook.getStock() == 2 && paperBook.getStock() == 2);
+        }
+
+        PurchaseResult result = new PurchaseResult();
+        PurchaseRequest tooMany = new PurchaseRequest("978-1313131301", 5, "customer@email.com", "123 Main St");
+        retryStore.tryBuy("order-3", tooMany, result);
+        assertTrue("Failed purchase should not be replayed", !result.isReplayed() && !result.isSuccessful());
+        paperBook.setStock(10);
+        retryStore.tryBuy("order-3", tooMany, result);
+        assertTrue("Retry of a failed key should run again", result.isSuccessful() && paperBook.getStock() == 5);
+
+        PurchaseDeduplicator bounded = new PurchaseDeduplicator(Duration.ofMinutes(1), 2, Clock.systemUTC());
+        retryStore.setPurchaseDeduplicator(bounded);
+        PurchaseRequest single = new PurchaseRequest("978-1313131301", 1, "customer@email.com", "123 Main St");
+        for (int i = 0; i < 5; i++) {
+            retryStore.tryBuy("bounded-" + i, single, result);
+        }
+        assertTrue("Deduplication table should stay bounded", bounded.size() == 2);
+
+        retryStore.setPurchaseDeduplicator(new PurchaseDeduplicator(Duration.ofMinutes(1), 2, Clock.systemUTC()));
+        paperBook.setStock(10);
+        retryStore.tryBuy("flood-kept", single, result);
+        PurchaseRequest missing = new PurchaseRequest("978-1313131399", 1, "customer@email.com", "123 Main St");
+        for (int i = 0; i < 10; i++) {
+            retryStore.tryBuy("flood-" + i, missing, result);
+        }
+        retryStore.tryBuy("flood-kept", single, result);
+        assertTrue("Failed purchases should not evict remembered keys",
+                result.isReplayed() && paperBook.getStock() == 9);
+
+        System.out.println("Quantum Bookstore: Idempotent purchase tests completed.\n");
+    }
+
+    /**
+     * Tests delivering eBook files from the cache and by streaming.
+     */
+    private void testEBookDelivery() {
+        System.out.println("Quantum Bookstore: Testing eBook delivery...");
+
+        try {
+            Path directory = Files.createTempDirectory("quantum-ebooks");
+            byte[] content = "%PDF-1.7 quantum bookstore test content".getBytes(StandardCharsets.US_ASCII);
+            Path file = Files.write(directory.resolve("978-1414141401.pdf"), content);
+            directory.toFile().deleteOnExit();
+            file.toFile().deleteOnExit();
+            EBook eBook = new EBook("978-1414141401", "Delivered Book", 2023, 9.99, "Delivery Author", "PDF");
+
+            ByteArrayOutputStream mailbox = new ByteArrayOutputStream();
+            EBookContentStore contentStore = new EBookContentStore(directory);
+            QuantumBookstore deliveryStore = new QuantumBookstore();
+            deliveryStore.setDeliveryGateway(new EBookDeliveryGateway(DeliveryGateway.NO_OP, contentStore,
+                    (email, book) -> Channels.newChannel(mailbox)));
+            deliveryStore.addBook(eBook);
+
+            PurchaseResult result = new PurchaseResult();
+            PurchaseRequest request = new PurchaseRequest("978-1414141401", 1, "customer@email.com", null);
+            deliveryStore.tryBuy(request, result);
+            deliveryStore.tryBuy(request, result);
+            assertTrue("Both buyers should receive the file", mailbox.size() == content.length * 2);
+            assertTrue("Second delivery should come from the cache",
+                    contentStore.getCacheMisses() == 1 && contentStore.getCacheHits() == 1);
+
+            List<String> notified = new ArrayList<>();
+            EBookDeliveryGateway notifying = new EBookDeliveryGateway(new DeliveryGateway() {
+                @Override
+                public void shipBook(PaperBook book, int quantity, String address) {
+                }
+
+                @Override
+                public void sendEBook(EBook book, int quantity, String email) {
+                    notified.add(book.getISBN());
+                }
+
+                @Override
+                public void sendPurchaseConfirmation(String email, Book book, long totalCents) {
+                }
+            }, contentStore, (email, book) -> Channels.newChannel(new ByteArrayOutputStream()));
+            try {
+                notifying.sendEBook(new EBook("978-1414141402", "Missing Book", 2023, 9.99, "Author", "PDF"), 1,
+                        "customer@email.com");
+                assertFalse("Should fail to deliver a missing file", true);
+            } catch (UncheckedIOException e) {
+                assertTrue("Failed transfers should not be reported as sent", notified.isEmpty());
+            }
+            notifying.sendEBook(eBook, 1, "customer@email.com");
+            assertTrue("Completed transfers should be reported as sent", notified.equals(List.of("978-1414141401")));
+
+            EBookContentStore streamingStore = new EBookContentStore(directory, 1024, 4, 8);
+            ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+            long sent = streamingStore.deliver(eBook, Channels.newChannel(streamed));
+            assertTrue("Large files should be streamed in chunks",
+                    sent == content.length && streamingStore.getCachedBytes() == 0);
+
+            WritableByteChannel stalled = new WritableByteChannel() {
+                @Override
+                public int write(ByteBuffer source) {
+                    return 0;
+                }
+
+                @Override
+                public boolean isOpen() {
+                    return true;
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+            try {
+                contentStore.deliver(eBook, stalled);
+                assertFalse("Should fail a transfer the channel never accepts", true);
+            } catch (IOException e) {
+                assertTrue("Stalled channels should fail the transfer", e.getMessage().contains("stopped accepting"));
+            }
+
+            try {
+                contentStore.resolve(new EBook("../secret", "Escape", 2023, 1.00, "Author", "PDF"));
+                assertFalse("Should not resolve files outside the root directory", true);
+            } catch (IllegalArgumentException e) {
+                assertTrue("Should reject files outside the root directory", true);
+            }
+        } catch (IOException e) {
+            assertFalse("EBook delivery should not fail: " + e.getMessage(), true);
+        }
+
+        System.out.println("Quantum Bookstore: EBook delivery tests completed.\n");
+    }
+
+    /**
+     * Tests purging outdated books in background time slices.
+     */
+    private void testIncrementalPurge() {
+        System.out.println("Quantum Bookstore: Testing incremental purge...");
+
+        QuantumBookstore purgeStore = new QuantumBookstore(true);
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            int year = i % 2 == 0 ? 1990 : 2023;
+            books.add(new EBook(String.format("978-15%08d", i), "Purge Book " + i, year, 5.00, "Purge Author", "PDF"));
+        }
+        purgeStore.addBooks(books);
+
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            Path archive = Files.createTempFile("quantum-archive", ".csv");
+            archive.toFile().deleteOnExit();
+            AtomicInteger streamed = new AtomicInteger();
+            OutdatedBookPurger purger = new OutdatedBookPurger(purgeStore, scheduler, 100, Duration.ofMillis(1),
+                    Duration.ZERO, Clock.systemDefaultZone());
+
+            long removed;
+            try (BookArchiveWriter writer = new BookArchiveWriter(archive)) {
+                CompletableFuture<Long> purge = purger.purgePublishedBefore(Year.of(2000), book -> {
+                    streamed.incrementAndGet();
+                    writer.accept(book);
+                });
+                removed = purge.get(30, TimeUnit.SECONDS);
+            }
+
+            assertTrue("Purge should remove every outdated book", removed == 1_000 && streamed.get() == 1_000);
+            assertTrue("Removed books should be archived", Files.readAllLines(archive).size() == 1_000);
+            assertTrue("Recent books should remain", purgeStore.getInventorySize() == 1_000);
+            assertTrue("Price index should drop purged books", purgeStore.getCheapestBooks(2_000).size() == 1_000);
+
+            QuantumBookstore failingStore = new QuantumBookstore();
+            for (int i = 0; i < 10; i++) {
+                failingStore.addBook(new EBook(String.format("978-14%08d", i), "Failing Archive " + i, 1990, 5.00,
+                        "Purge Author", "PDF"));
+            }
+            List<Book> archived = new ArrayList<>();
+            CompletableFuture<Long> failing = new OutdatedBookPurger(failingStore, scheduler, 100,
+                    Duration.ofMillis(1), Duration.ZERO, Clock.systemDefaultZone())
+                    .purgePublishedBefore(Year.of(2000), book -> {
+                        if (archived.size() == 2) {
+                            throw new IllegalStateException("archive full");
+                        }
+                        archived.add(book);
+                    });
+            try {
+                failing.get(30, TimeUnit.SECONDS);
+                assertFalse("Purge with a failing sink should fail", true);
+            } catch (ExecutionException e) {
+                assertTrue("Books the sink did not accept should stay in inventory",
+                        archived.size() == 2 && failingStore.getInventorySize() == 8
+                        && failingStore.getCheapestBooks(10).size() == 8);
+            }
+
+            try {
+                purger.purgeOlderThan(-1, book -> { });
+                assertFalse("Should not allow negative years", true);
+            } catch (IllegalArgumentException e) {
+                assertTrue("Should throw exception for negative years", true);
+            }
+        } catch (Exception e) {
+            assertFalse("Incremental purge should not fail: " + e, true);
+        } finally {
+            scheduler.shutdownNow();
+        }
+
+        System.out.println("Quantum Bookstore: Incremental purge tests completed.\n");
+    }
+
+    /**
+     * Tests recording orders per customer, revenue queries and spilling
+     * segments to disk.
+     */
+    private void testOrderHistory() {
+        System.out.println("Quantum Bookstore: Testing order history...");
+
+        QuantumBookstore historyStore = new QuantumBookstore();
+        historyStore.setDeliveryGateway(DeliveryGateway.NO_OP);
+        OrderHistory history = new OrderHistory();
+        historyStore.addPurchaseListener(history);
+        historyStore.addBook(new EBook("978-1616161601", "History Book", 2023, 10.00, "History Author", "PDF"));
+
+        historyStore.buyBook("978-1616161601", 2, "alice@email.com", null);
+        historyStore.buyBook("978-1616161601", 1, "bob@email.com", null);
+        historyStore.buyBook("978-1616161601", 3, "alice@email.com", null);
+
+        List<OrderRecord> aliceOrders = history.getOrders("alice@email.com");
+        assertTrue("Should index orders per customer", aliceOrders.size() == 2);
+        assertTrue("Orders should keep quantity and amount",
+                aliceOrders.get(1).getQuantity() == 3 && aliceOrders.get(1).getAmountCents() == 3000);
+        assertTrue("Unknown customers should have no orders", history.getOrders("carol@email.com").isEmpty());
+
+        history.close();
+        historyStore.addPurchaseListener((book, quantity, amountCents, email) -> {
+            throw new IllegalStateException("listener down");
+        });
+        PaperBook listened = new PaperBook("978-1616161602", "Listened Book", 2023, 5.00, "History Author", 5);
+        historyStore.addBook(listened);
+        historyStore.buyBook("listener-key", "978-1616161602", 2, "alice@email.com", "Cairo");
+        historyStore.buyBook("listener-key", "978-1616161602", 2, "alice@email.com", "Cairo");
+        assertTrue("Failing or closed listeners should not fail or repeat a purchase",
+                listened.getStock() == 3 && history.getOrders("alice@email.com").size() == 2);
+
+        Instant start = Instant.parse("2025-01-01T00:00:00Z");
+        try {
+            Path spillDirectory = Files.createTempDirectory("quantum-orders");
+            spillDirectory.toFile().deleteOnExit();
+            OrderHistory neighbour = new OrderHistory(4, 1, spillDirectory, Clock.systemUTC());
+            try (OrderHistory spilling = new OrderHistory(4, 1, spillDirectory, Clock.systemUTC())) {
+                for (int i = 0; i < 20; i++) {
+                    spilling.record(i % 2 == 0 ? "even@email.com" : "odd@email.com", "978-1616161601", 1, 100,
+                            start.plusSeconds(i).toEpochMilli(), "EBook");
+                    neighbour.record("even@email.com", "978-1616161602", 1, 999, start.plusSeconds(i).toEpochMilli(),
+                            "PaperBook");
+                }
+                for (int i = 0; i < 100
+                        && (spilling.getSpilledSegmentCount() < 3 || neighbour.getSpilledSegmentCount() < 3); i++) {
+                    Thread.sleep(10);
+                }
+                try (var spilled = Files.list(spillDirectory)) {
+                    spilled.forEach(file -> file.toFile().deleteOnExit());
+                }
+
+                assertTrue("Old segments should be spilled to disk", spilling.getSpilledSegmentCount() == 3);
+                List<OrderRecord> evenOrders = spilling.getOrders("even@email.com");
+                assertTrue("Spilled orders should stay queryable", evenOrders.size() == 10
+                        && evenOrders.stream().allMatch(order -> order.getAmountCents() == 100));
+                assertTrue("Revenue should cover the requested range",
+                        spilling.getRevenueCents(start.plusSeconds(2), start.plusSeconds(18)) == 1600);
+                assertTrue("Histories sharing a spill directory should not overwrite each other",
+                        neighbour.getRevenueCents(start, start.plusSeconds(20)) == 19980);
+
+                neighbour.close();
+                boolean closedReadFailed = false;
+                try {
+                    neighbour.getOrders("even@email.com");
+                } catch (IllegalStateException e) {
+                    closedReadFailed = true;
+                }
+                assertTrue("Closed histories should not read deleted segments", closedReadFailed);
+            }
+            try (var remaining = Files.list(spillDirectory)) {
+                assertTrue("Closing should delete spilled segment files", remaining.count() == 0);
+            }
+        } catch (IOException | InterruptedException e) {
+            assertFalse("Order history should not fail: " + e, true);
+        }
+
+        System.out.println("Quantum Bookstore: Order history tests completed.\n");
+    }
+
+    /**
+     * Tests "customers also bought" recommendations from co-purchases.
+     */
+    private void testRecommendations() {
+        System.out.println("Quantum Bookstore: Testing recommendations...");
+
+        QuantumBookstore recommendingStore = new QuantumBookstore();
+        recommendingStore.setDeliveryGateway(DeliveryGateway.NO_OP);
+        recommendingStore.setRecommendationEngine(new RecommendationEngine(2, 2, 5, 100));
+        for (int i = 1; i <= 4; i++) {
+            recommendingStore.addBook(new EBook("978-17000000" + i, "Related " + i, 2023, 5.00, "Author", "PDF"));
+        }
+
+        recommendingStore.buyBook("978-170000001", 1, "a@email.com", null);
+        recommendingStore.buyBook("978-170000002", 1, "a@email.com", null);
+        recommendingStore.buyBook("978-170000001", 1, "b@email.com", null);
+        recommendingStore.buyBook("978-170000002", 1, "b@email.com", null);
+        recommendingStore.buyBook("978-170000003", 1, "b@email.com", null);
+
+        List<Book> alsoBought = recommendingStore.getAlsoBought("978-170000001", 2);
+        assertTrue("Most frequent co-purchase should come first",
+                alsoBought.size() == 2 && alsoBought.get(0).getISBN().equals("978-170000002"));
+        assertTrue("Books never bought together should have no recommendations",
+                recommendingStore.getAlsoBought("978-170000004", 2).isEmpty());
+
+        RecommendationEngine bounded = new RecommendationEngine(1, 2, 50, 100);
+        for (int i = 0; i < 50; i++) {
+            bounded.recordPurchase("noise" + i + "@email.com", "978-1800000000");
+            bounded.recordPurchase("noise" + i + "@email.com", "978-18100000" + i);
+            for (int j = 0; j < 2; j++) {
+                bounded.recordPurchase("fan" + i + "-" + j + "@email.com", "978-1800000000");
+                bounded.recordPurchase("fan" + i + "-" + j + "@email.com", "978-1819999999");
+            }
+        }
+        assertTrue("Pruned counters should still keep the frequent neighbor",
+                bounded.recommend("978-1800000000", 5).equals(List.of("978-1819999999")));
+
+        RecommendationEngine ranking = new RecommendationEngine(3, 4, 2, 100);
+        int[] frequencies = {2, 5, 1, 4, 3};
+        for (int round = 0; round < 5; round++) {
+            for (int k = 0; k < frequencies.length; k++) {
+                if (round < frequencies[k]) {
+                    String customer = "rank" + k + "-" + round + "@email.com";
+                    ranking.recordPurchase(customer, "978-1820000000");
+                    ranking.recordPurchase(customer, "978-182000000" + (k + 1));
+                }
+            }
+        }
+        assertTrue("Incremental ranking should keep the most frequent neighbors in order",
+                ranking.recommend("978-1820000000", 5).equals(List.of("978-1820000002", "978-1820000004",
+                        "978-1820000005")));
+
+        System.out.println("Quantum Bookstore: Recommendation tests completed.\n");
+    }
+
+    /**
+     * Tests per-customer and global purchase rate limits.
+     */
+    private void testRateLimiting() {
+        System.out.println("Quantum Bookstore: Testing rate limiting...");
+
+        QuantumBookstore limitedStore = new QuantumBookstore();
+        limitedStore.setDeliveryGateway(DeliveryGateway.NO_OP);
+        limitedStore.setRateLimiter(new PurchaseRateLimiter(0.01, 2, 0.01, 3));
+        limitedStore.addBook(new EBook("978-1919191901", "Limited Rate", 2023, 1.00, "Rate Author", "PDF"));
+
+        PurchaseResult result = new PurchaseResult();
+        PurchaseRequest abuser = new PurchaseRequest("978-1919191901", 1, "abuser@email.com", null);
+        limitedStore.tryBuy(abuser, result);
+        limitedStore.tryBuy(abuser, result);
+        assertTrue("Customer burst should be allowed", result.isSuccessful());
+        assertTrue("Customer should be limited after the burst",
+                limitedStore.tryBuy(abuser, result) == PurchaseStatus.RATE_LIMITED);
+
+        PurchaseRequest other = new PurchaseRequest("978-1919191901", 1, "other@email.com", null);
+        assertTrue("Other customers should not be limited by the abuser",
+                limitedStore.tryBuy(other, result) == PurchaseStatus.OK);
+        assertTrue("Store should be limited after the global burst",
+                limitedStore.tryBuy(other, result) == PurchaseStatus.RATE_LIMITED);
+
+        try {
+            limitedStore.buyBook("978-1919191901", 1, "third@email.com", null);
+            assertFalse("Should reject purchases over the limit", true);
+        } catch (IllegalStateException e) {
+            assertTrue("Should throw exception for purchases over the limit", true);
+        }
+
+        PurchaseRateLimiter globalFirst = new PurchaseRateLimiter(1000, 10, 0.01, 1);
+        globalFirst.tryAcquire("first@email.com");
+        for (int i = 0; i < 1_000; i++) {
+            globalFirst.tryAcquire("unique" + i + "@email.com");
+        }
+        assertTrue("Globally rejected purchases should not track customers", globalFirst.getTrackedCustomers() == 1);
+
+        PurchaseRateLimiter bounded = new PurchaseRateLimiter(0.01, 2, 1_000_000, 1_000, 2);
+        bounded.tryAcquire("a@email.com");
+        bounded.tryAcquire("b@email.com");
+        assertTrue("New customers should replace a bucket instead of being refused",
+                bounded.tryAcquire("c@email.com") && bounded.getTrackedCustomers() == 2);
+        boolean admitted = true;
+        for (int i = 0; i < 1_000; i++) {
+            admitted &= bounded.tryAcquire("throwaway" + i + "@email.com");
+        }
+        assertTrue("Throwaway emails should not lock out new customers or grow the table",
+                admitted && bounded.tryAcquire("legit@email.com") && bounded.getTrackedCustomers() == 2);
+
+        System.out.println("Quantum Bookstore: Rate limiting tests completed.\n");
+    }
+
+    /**
+     * Tests routing paper book orders to the cheapest warehouses.
+     */
+    private void testMultiWarehouseStock() {
+        System.out.println("Quantum Bookstore: Testing multi-warehouse stock...");
+
+        Warehouse cairo = new Warehouse("CAI", "Cairo", 5.0, 2.0, 10.0);
+        Warehouse alexandria = new Warehouse("ALX", "Alexandria", 5.0, 2.0, 10.0);
+        Map<Warehouse, Integer> stockByWarehouse = new LinkedHashMap<>();
+        stockByWarehouse.put(cairo, 5);
+        stockByWarehouse.put(alexandria, 3);
+        WarehouseStock stock = new WarehouseStock(stockByWarehouse);
+        PaperBook book = new PaperBook("978-2020202020", "Routed Book", 2023, 10.00, "Route Author", stock);
+
+        List<String> shipments = new ArrayList<>();
+        QuantumBookstore routedStore = new QuantumBookstore();
+        DeliveryGateway router = new DeliveryGateway() {
+            @Override
+            public void shipBook(PaperBook paperBook, int quantity, String address) {
+                shipments.add("?:" + quantity);
+            }
+
+            @Override
+            public void shipBook(PaperBook paperBook, int quantity, String address, Warehouse warehouse) {
+                shipments.add(warehouse.getId() + ":" + quantity);
+            }
+
+            @Override
+            public void sendEBook(EBook eBook, int quantity, String email) {
+            }
+
+            @Override
+            public void sendPurchaseConfirmation(String email, Book purchased, long totalCents) {
+            }
+        };
+        routedStore.setDeliveryGateway(new EBookDeliveryGateway(router, new EBookContentStore(Path.of(".")),
+                (email, eBook) -> Channels.newChannel(new ByteArrayOutputStream())));
+        routedStore.addBook(book);
+
+        assertTrue("Local warehouse should be cheaper", ShippingService.calculateShippingCost(book, 1,
+                "1 Corniche, Alexandria", alexandria) < ShippingService.calculateShippingCost(book, 1,
+                "1 Corniche, Alexandria", cairo));
+        assertTrue("Total stock should sum the warehouses", book.getStock() == 8);
+
+        routedStore.buyBook("978-2020202020", 2, "route@email.com", "1 Corniche, Alexandria");
+        assertTrue("Order should ship from the nearest warehouse", shipments.equals(List.of("ALX:2")));
+
+        shipments.clear();
+        routedStore.buyBook("978-2020202020", 2, "route@email.com", "1 Corniche, Alexandria");
+        assertTrue("Order should move to the cheapest warehouse that can fulfil it",
+                shipments.equals(List.of("CAI:2")));
+
+        PurchaseResult result = new PurchaseResult();
+        assertTrue("Order exceeding all warehouses should be rejected without taking stock", routedStore.tryBuy(
+                new PurchaseRequest("978-2020202020", 5, "route@email.com", "Cairo"), result)
+                == PurchaseStatus.OUT_OF_STOCK && stock.getStock(cairo) == 3 && stock.getStock(alexandria) == 1);
+
+        shipments.clear();
+        routedStore.buyBook("978-2020202020", 4, "route@email.com", "1 Corniche, Alexandria");
+        assertTrue("Order should be split across warehouses", shipments.equals(List.of("CAI:3", "ALX:1"))
+                && stock.getStock(cairo) == 0 && stock.getStock(alexandria) == 0);
+
+        PaperBook single = new PaperBook("978-2121212121", "Single Warehouse", 2023, 1.00, "Route Author", 4);
+        assertTrue("Single-stock books should use the default warehouse",
+                single.getWarehouseStock().getStock(Warehouse.DEFAULT) == 4
+                && ShippingService.calculateShippingCost(single, 2, "Anywhere") == 9.0);
+
+        try {
+            new WarehouseStock(null, 4);
+            assertFalse("Should reject a null warehouse", true);
+        } catch (IllegalArgumentException e) {
+            assertTrue("Should reject a null warehouse", true);
+        }
+
+        Map<Warehouse, Integer> unordered = new HashMap<>();
+        unordered.put(cairo, 2);
+        unordered.put(alexandria, 3);
+        PaperBook restocked = new PaperBook("978-2222222222", "Restocked Book", 2023, 1.00, "Route Author",
+                new WarehouseStock(alexandria, unordered));
+        restocked.setStock(7);
+        assertTrue("Resetting stock should fill the explicit default warehouse",
+                restocked.getWarehouseStock().getDefaultWarehouse() == alexandria
+                && restocked.getWarehouseStock().getStock(alexandria) == 7
+                && restocked.getWarehouseStock().getStock(cairo) == 0);
+
+        System.out.println("Quantum Bookstore: Multi-warehouse stock tests completed.\n");
+    }
+
+    /**
+     * Tests striped stock counters for hot titles under concurrent purchases.
+     */
+    private void testHotTitleStock() {
+        System.out.println("Quantum Bookstore: Testing hot title stock...");
+
+        StripedStockCounter counter = new StripedStockCounter(10, 4);
+        assertTrue("Striped counter should spread stock over slices",
+                counter.getStripes() == 4 && counter.get() == 10);
+        assertTrue("Striped counter should rebalance when a slice runs dry", counter.take(7, false) == 7
+                && counter.take(4, false) == 0 && counter.take(4, true) == 3 && counter.get() == 0);
+
+        QuantumBookstore hotStore = new QuantumBookstore();
+        hotStore.setDeliveryGateway(DeliveryGateway.NO_OP);
+        PaperBook hotBook = new PaperBook("978-2222222222", "Launch Day", 2024, 20.00, "Hot Author", 1000);
+        hotStore.addBook(hotBook);
+        hotStore.designateHotTitle("978-2222222222");
+        assertTrue("Hot title should use striped counters and keep its stock",
+                hotBook.getWarehouseStock().isStriped() && hotBook.getStock() == 1000);
+
+        int threads = 8;
+        AtomicInteger sold = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String email = "hot" + t + "@email.com";
+            futures.add(executor.submit(() -> {
+                PurchaseRequest request = new PurchaseRequest("978-2222222222", 1, email, "Cairo");
+                PurchaseResult result = new PurchaseResult();
+                for (int i = 0; i < 150; i++) {
+                    if (hotStore.tryBuy(request, result) == PurchaseStatus.OK) {
+                        sold.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            assertFalse("Concurrent hot title purchases should not fail: " + e, true);
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue("Hot title should sell exactly its stock without overselling",
+                sold.get() == 1000 && hotBook.getStock() == 0);
+
+        try {
+            hotStore.designateHotTitle("978-0000000000");
+            assertFalse("Should reject designating unknown titles", true);
+        } catch (IllegalArgumentException e) {
+            assertTrue("Should throw exception for unknown hot titles", true);
+        }
+
+        System.out.println("Quantum Bookstore: Hot title stock tests completed.\n");
+    }
+
+    /**
+     * Tests verifying and repairing secondary structures against the
+     * inventory.
+     */
+    private void testConsistencyChecker() {
+        System.out.println("Quantum Bookstore: Testing consistency checker...");
+
+        QuantumBookstore checkedStore = new QuantumBookstore(true);
+        PricingEngine engine = new PricingEngine();
+        checkedStore.setPricingEngine(engine);
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            books.add(new PaperBook(String.format("978-23%08d", i), "Checked " + i, 2020, 10.00 + i,
+                    "Check Author", 5));
+        }
+        checkedStore.addBooks(books);
+
+        ConsistencyChecker checker = new ConsistencyChecker(checkedStore, ForkJoinPool.commonPool(), 16);
+        assertTrue("Fresh store should be consistent", checker.check().isConsistent());
+
+        books.get(1).setTitle("Renamed Without Refresh");
+        engine.remove(books.get(2));
+        engine.refresh(new PaperBook("978-2399999999", "Ghost", 2020, 1.00, "Nobody", 1));
+        books.get(3).setISBN("978-2388888888");
+
+        ConsistencyReport report = checker.check();
+        Set<Divergence.Kind> kinds = new HashSet<>();
+        for (Divergence divergence : report.getDivergences()) {
+            kinds.add(divergence.getKind());
+        }
+        assertTrue("Checker should report every divergence", kinds.equals(Set.of(Divergence.Kind.CATALOG_STALE,
+                Divergence.Kind.PRICING_STALE, Divergence.Kind.PRICING_ORPHAN, Divergence.Kind.ISBN_MISMATCH))
+                && report.getRepairedCount() == 0);
+        CatalogSnapshot published = checkedStore.getCatalogSnapshot();
+        assertTrue("Checking should not change anything", !checker.check().isConsistent()
+                && checkedStore.getCatalogSnapshot() == published
+                && published.find("978-2300000001").getTitle().equals("Checked 1"));
+
+        ConsistencyReport repaired = checker.repair();
+        assertTrue("Repair should fix every divergence",
+                repaired.getRepairedCount() == repaired.getDivergences().size() && checker.check().isConsistent());
+        assertTrue("Repaired book should be found under its new ISBN",
+                checkedStore.findBook("978-2388888888") == books.get(3)
+                && checkedStore.findBook(String.format("978-23%08d", 3)) == null
+                && checkedStore.searchByTitle("Renamed Without Refresh").size() == 1);
+
+        System.out.println("Quantum Bookstore: Consistency checker tests completed.\n");
+    }
+
+    /**
+     * Tests warming up a store against a side-effect-free shadow copy.
+     */
+    private void testStartupWarmup() {
+        System.out.println("Quantum Bookstore: Testing startup warm-up...");
+
+        EBook removed = new EBook("978-2626262626", "Removed Warm EBook", 2024, 6.00, "Warm Author", "PDF");
+        QuantumBookstore liveStore = new QuantumBookstore(true) {
+            @Override
+            public List<Book> getAllBooks() {
+                List<Book> books = super.getAllBooks();
+                books.add(removed);
+                return books;
+            }
+        };
+        List<String> deliveries = new ArrayList<>();
+        liveStore.setDeliveryGateway(new DeliveryGateway() {
+            @Override
+            public void shipBook(PaperBook book, int quantity, String address) {
+                deliveries.add(book.getISBN());
+            }
+
+            @Override
+            public void sendEBook(EBook book, int quantity, String email) {
+                deliveries.add(book.getISBN());
+            }
+
+            @Override
+            public void sendPurchaseConfirmation(String email, Book book, long totalCents) {
+                deliveries.add(email);
+            }
+        });
+        PaperBook paper = new PaperBook("978-2424242424", "Warm Paper", 2024, 12.00, "Warm Author", 3);
+        EBook ebook = new EBook("978-2525252525", "Warm EBook", 2024, 6.00, "Warm Author", "PDF");
+        liveStore.addBooks(List.of(paper, ebook));
+        liveStore.designateHotTitle("978-2424242424");
+        OrderHistory liveHistory = new OrderHistory();
+        AtomicInteger liveNotifications = new AtomicInteger();
+        PurchaseRateLimiter liveLimiter = new PurchaseRateLimiter(0.01, 1, 0.01, 1);
+        liveStore.addPurchaseListener(liveHistory);
+        liveStore.addPurchaseListener((book, quantity, amountCents, email) -> liveNotifications.incrementAndGet());
+        liveStore.setRecommendationEngine(new RecommendationEngine());
+        liveStore.setRateLimiter(liveLimiter);
+
+        OrderHistory recorded = new OrderHistory();
+        recorded.onPurchase(paper, 2, 2400, "recorded@email.com");
+        recorded.onPurchase(ebook, 1, 600, "recorded@email.com");
+        StoreWarmup warmup = new StoreWarmup(liveStore, 500, 0.5, 2, Duration.ofSeconds(10));
+        warmup.setTrafficProfile(StoreWarmup.toTrafficProfile(recorded.getOrders("recorded@email.com")));
+
+        WarmupReport report = warmup.run();
+        System.out.println("Quantum Bookstore: " + report);
+        assertTrue("Warm-up should stabilize and report readiness",
+                report.isReady() && report.getOperations() >= 1500);
+        assertTrue("Warm-up should not touch live stock or deliveries",
+                paper.getStock() == 3 && paper.getWarehouseStock().isStriped() && deliveries.isEmpty());
+        assertTrue("Warm-up should not touch live listeners or limits",
+                liveHistory.getOrderCount() == 0 && liveNotifications.get() == 0
+                && liveStore.getAlsoBought("978-2424242424", 5).isEmpty() && liveLimiter.getTrackedCustomers() == 0);
+
+        try {
+            new StoreWarmup(liveStore, 0, 0.1, 1, Duration.ofSeconds(1));
+            assertFalse("Should reject a non-positive batch size", true);
+        } catch (IllegalArgumentException e) {
+            assertTrue("Should throw exception for a non-positive batch size", true);
+        }
+
+        System.out.println("Quantum Bookstore: Startup warm-up tests completed.\n");
+    }
+
+    /**
+     * Tests a short mixed-workload load run and its invariants.
+     */
+    private void testLoadHarness() {
+        System.out.println("Quantum Bookstore: Testing load harness...");
+
+        Map<LoadTestHarness.Operation, Integer> weights = new EnumMap<>(LoadTestHarness.Operation.class);
+        weights.put(LoadTestHarness.Operation.BROWSE, 40);
+        weights.put(LoadTestHarness.Operation.SEARCH, 25);
+        weights.put(LoadTestHarness.Operation.BUY, 30);
+        weights.put(LoadTestHarness.Operation.PURGE, 1);
+        weights.put(LoadTestHarness.Operation.ADD, 4);
+        try {
+            boolean passed = new LoadTestHarness(4, Duration.ofMillis(500), 200, 0.99, weights).run();
+            assertTrue("Load run should conserve stock and keep indexes consistent", passed);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            assertFalse("Load run should not be interrupted", true);
+        }
+
+        ZipfianGenerator zipf = new ZipfianGenerator(100, 1.2);
+        int hits = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (zipf.next() == 0) {
+                hits++;
+            }
+        }
+        assertTrue("Zipfian skew should favour the top rank", hits > 2_000);
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long nanos = 1; nanos <= 1_000; nanos++) {
+            histogram.record(nanos * 1_000);
+        }
+        long median = histogram.getPercentile(50);
+        assertTrue("Histogram percentiles should be within a few percent",
+                median >= 485_000 && median <= 515_000 && histogram.getMax() == 1_000_000);
+
+        System.out.println("Quantum Bookstore: Load harness tests completed.\n");
+    }
+
     /**
      * Utility method to assert test conditions.
      *
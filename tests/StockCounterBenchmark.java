@@ -0,0 +1,100 @@
+package tests;
+
+import java.util.concurrent.CountDownLatch;
+import model.*;
+import service.DeliveryGateway;
+
+public class StockCounterBenchmark {
+
+    private static final String ISBN = "978-9999999999";
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private StockCounterBenchmark() {
+        // Utility class should not be instantiated
+    }
+
+    /**
+     * Runs many threads buying the same ISBN, first with the default atomic
+     * stock counter and then with the title designated hot, and prints the
+     * throughput of each.
+     *
+     * @param args Optional thread count and purchases per thread
+     * @throws InterruptedException if interrupted while waiting for threads
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4 * Runtime.getRuntime().availableProcessors();
+        int purchases = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+
+        System.out.println("Quantum book store: Stock counter benchmark, " + threads + " threads x "
+                + purchases + " purchases of one ISBN");
+        for (int round = 0; round < 3; round++) {
+            report("atomic ", threads * (long) purchases, run(threads, purchases, false));
+            report("striped", threads * (long) purchases, run(threads, purchases, true));
+        }
+    }
+
+    /**
+     * Runs one benchmark round.
+     *
+     * @param threads The number of buying threads
+     * @param purchases The purchases per thread
+     * @param hot Whether to designate the title hot
+     * @return The elapsed time in nanoseconds
+     * @throws InterruptedException if interrupted while waiting for threads
+     * @throws IllegalStateException if the stock was oversold or lost
+     */
+    private static long run(int threads, int purchases, boolean hot) throws InterruptedException {
+        QuantumBookstore store = new QuantumBookstore();
+        store.setDeliveryGateway(DeliveryGateway.NO_OP);
+        int stock = threads * purchases;
+        PaperBook book = new PaperBook(ISBN, "Benchmark Launch", 2024, 10.00, "Bench Author", stock);
+        store.addBook(book);
+        if (hot) {
+            store.designateHotTitle(ISBN);
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            PurchaseRequest request = new PurchaseRequest(ISBN, 1, "bench" + t + "@email.com", "Cairo");
+            Thread thread = new Thread(() -> {
+                PurchaseResult result = new PurchaseResult();
+                try {
+                    start.await();
+                    for (int i = 0; i < purchases; i++) {
+                        store.tryBuy(request, result);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+            thread.start();
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - began;
+
+        if (book.getStock() != 0) {
+            throw new IllegalStateException("Stock not conserved, remaining: " + book.getStock());
+        }
+        return elapsed;
+    }
+
+    /**
+     * Prints the throughput of a round.
+     *
+     * @param label The counter label
+     * @param purchases The total number of purchases
+     * @param elapsedNanos The elapsed time in nanoseconds
+     */
+    private static void report(String label, long purchases, long elapsedNanos) {
+        System.out.printf("Quantum book store: %s %,12.0f purchases/s  %6.1f ns/purchase%n", label,
+                purchases * 1e9 / elapsedNanos, (double) elapsedNanos / purchases);
+    }
+}
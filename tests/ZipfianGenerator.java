@@ -0,0 +1,46 @@
+package tests;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class ZipfianGenerator {
+
+    private final double[] cumulative;
+
+    /**
+     * Constructs a generator of ranks whose probability falls off as
+     * {@code 1 / (rank + 1)^skew}, so a few items receive most of the traffic.
+     *
+     * @param items The number of ranks
+     * @param skew The Zipf exponent; 0 is uniform, around 1 is typical of
+     * best-seller traffic
+     * @throws IllegalArgumentException if items is not positive or skew is
+     * negative
+     */
+    public ZipfianGenerator(int items, double skew) {
+        if (items <= 0) {
+            throw new IllegalArgumentException("Item count must be greater than 0");
+        }
+        if (skew < 0) {
+            throw new IllegalArgumentException("Skew cannot be negative");
+        }
+        this.cumulative = new double[items];
+        double sum = 0;
+        for (int i = 0; i < items; i++) {
+            sum += 1 / Math.pow(i + 1, skew);
+            cumulative[i] = sum;
+        }
+    }
+
+    /**
+     * Draws the next rank. Rank 0 is the most popular. Safe to call from many
+     * threads.
+     *
+     * @return A rank between 0 (inclusive) and the item count (exclusive)
+     */
+    public int next() {
+        double target = ThreadLocalRandom.current().nextDouble() * cumulative[cumulative.length - 1];
+        int index = Arrays.binarySearch(cumulative, target);
+        return index >= 0 ? index : Math.min(-index - 1, cumulative.length - 1);
+    }
+}